@@ -0,0 +1,26 @@
+package viewed.bench;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Runs JMH, writing results as JSON to jmh-result.json unless the
+ * arguments already choose a result format or file.
+ */
+public final class BenchMain {
+
+    private BenchMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> jmhArgs = new ArrayList<>(Arrays.asList(args));
+        if (!jmhArgs.contains("-rf") && !jmhArgs.contains("-rff")) {
+            jmhArgs.add("-rf");
+            jmhArgs.add("json");
+            jmhArgs.add("-rff");
+            jmhArgs.add("jmh-result.json");
+        }
+        org.openjdk.jmh.Main.main(jmhArgs.toArray(new String[0]));
+    }
+}
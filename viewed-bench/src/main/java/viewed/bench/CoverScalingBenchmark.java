@@ -0,0 +1,46 @@
+package viewed.bench;
+
+import org.openjdk.jmh.annotations.*;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The cover path on its own: subsampled decode of the encoded bytes, and
+ * scaling an already decoded image down to the 300 px artwork size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CoverScalingBenchmark {
+
+    private static final int ART_PIXELS = 300;
+
+    @Param({"500", "4000"})
+    public int coverSize;
+
+    private byte[] jpeg;
+    private BufferedImage decoded;
+
+    @Setup(Level.Trial)
+    public void createCover() throws Exception {
+        Fixtures.isolateHome();
+        jpeg = Fixtures.jpeg(coverSize);
+        decoded = ImageIO.read(new ByteArrayInputStream(jpeg));
+    }
+
+    @Benchmark
+    public BufferedImage decode() throws Throwable {
+        return (BufferedImage) Player.DECODE_COVER.invokeExact(jpeg, ART_PIXELS, ART_PIXELS);
+    }
+
+    @Benchmark
+    public BufferedImage scaleToFit() throws Throwable {
+        return (BufferedImage) Player.SCALE_TO_FIT.invokeExact(decoded, ART_PIXELS, ART_PIXELS);
+    }
+}
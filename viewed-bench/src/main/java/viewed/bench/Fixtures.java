@@ -0,0 +1,144 @@
+package viewed.bench;
+
+import org.jaudiotagger.audio.AudioFile;
+import org.jaudiotagger.audio.AudioFileIO;
+import org.jaudiotagger.tag.FieldKey;
+import org.jaudiotagger.tag.Tag;
+import org.jaudiotagger.tag.images.Artwork;
+import org.jaudiotagger.tag.images.ArtworkFactory;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Media synthesized at setup, so nothing binary has to be checked in.
+ */
+final class Fixtures {
+
+    /** 128 kbit/s, 44.1 kHz, stereo MPEG-1 Layer III, no CRC or padding. */
+    private static final byte[] FRAME_HEADER = {(byte) 0xFF, (byte) 0xFB, (byte) 0x90, (byte) 0x04};
+    private static final int FRAME_BYTES = 417;
+    private static final String[] WORDS = {"love", "night", "summer", "blue", "dance", "heart", "river", "fire",
+            "dream", "city", "road", "light", "rain", "gold", "home", "wild"};
+
+    private static Path home;
+
+    private Fixtures() {
+    }
+
+    /**
+     * Points user.home at a scratch directory so the player's caches and
+     * history don't touch the real ones.
+     */
+    static synchronized void isolateHome() {
+        if (home != null)
+            return;
+        try {
+            home = Files.createTempDirectory("viewed-bench-home");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        System.setProperty("user.home", home.toString());
+        // jaudiotagger logs every file it reads
+        Logger.getLogger("org.jaudiotagger").setLevel(Level.OFF);
+    }
+
+    static Path tempDir(String name) throws IOException {
+        isolateHome();
+        return Files.createTempDirectory(home, name);
+    }
+
+    /**
+     * A few seconds of silent MP3 frames with an ID3v2 tag, and a cover of
+     * {@code coverSize} pixels square embedded when it is positive.
+     */
+    static File mp3(Path dir, String name, int coverSize) throws Exception {
+        File file = dir.resolve(name).toFile();
+        byte[] frame = new byte[FRAME_BYTES];
+        System.arraycopy(FRAME_HEADER, 0, frame, 0, FRAME_HEADER.length);
+        byte[] audio = new byte[FRAME_BYTES * 200];
+        for (int i = 0; i < 200; i++)
+            System.arraycopy(frame, 0, audio, i * FRAME_BYTES, FRAME_BYTES);
+        Files.write(file.toPath(), audio);
+
+        AudioFile audioFile = AudioFileIO.read(file);
+        Tag tag = audioFile.getTagOrCreateAndSetDefault();
+        tag.setField(FieldKey.TITLE, "Benchmark " + name);
+        tag.setField(FieldKey.ARTIST, "Viewed");
+        tag.setField(FieldKey.ALBUM, "Fixtures");
+        if (coverSize > 0) {
+            Artwork artwork = ArtworkFactory.getNew();
+            artwork.setBinaryData(jpeg(coverSize));
+            artwork.setMimeType("image/jpeg");
+            artwork.setPictureType(3); // Front cover
+            tag.setField(artwork);
+        }
+        audioFile.commit();
+        return file;
+    }
+
+    /**
+     * A square JPEG with a gradient and some noise, so it doesn't compress
+     * unrealistically well.
+     */
+    static byte[] jpeg(int size) throws IOException {
+        BufferedImage img = new BufferedImage(size, size, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = img.createGraphics();
+        g.setPaint(new GradientPaint(0, 0, new Color(30, 60, 120), size, size, new Color(220, 140, 40)));
+        g.fillRect(0, 0, size, size);
+        g.dispose();
+        Random random = new Random(size);
+        for (int i = 0; i < size * size / 16; i++)
+            img.setRGB(random.nextInt(size), random.nextInt(size), random.nextInt());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(img, "jpg", out);
+        return out.toByteArray();
+    }
+
+    /**
+     * An extended M3U playlist with {@code lines} entries, mixing absolute
+     * paths and URLs the way real exported playlists do.
+     */
+    static byte[] playlist(int lines) {
+        StringBuilder sb = new StringBuilder(lines * 80);
+        sb.append("#EXTM3U\n");
+        for (int i = 0; i < lines; i++) {
+            sb.append("#EXTINF:").append(120 + i % 300).append(",Artist ").append(i % 97)
+                    .append(" - Track ").append(i).append('\n');
+            if (i % 10 == 0)
+                sb.append("https://radio.example.com/stream/").append(i).append(".mp3\n");
+            else
+                sb.append("/home/user/Music/Artist ").append(i % 97).append("/Album ").append(i % 13)
+                        .append('/').append(i).append(" Track.mp3\n");
+        }
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Text as the library indexes it: title, artist, album and path.
+     */
+    static String[] searchTexts(int entries) {
+        String[] texts = new String[entries];
+        for (int i = 0; i < entries; i++) {
+            String title = WORDS[i % WORDS.length] + " " + WORDS[(i / 7) % WORDS.length] + " Track " + i;
+            String artist = "Artist " + i % 997;
+            String album = "Album " + i % 13;
+            texts[i] = title + " " + artist + " " + album + " /home/user/Music/" + artist + "/" + album + "/"
+                    + i + " Track.mp3";
+        }
+        return texts;
+    }
+}
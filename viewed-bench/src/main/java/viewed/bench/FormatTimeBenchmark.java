@@ -0,0 +1,33 @@
+package viewed.bench;
+
+import javafx.util.Duration;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PlayerUI.formatTime, which runs for every position tick.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FormatTimeBenchmark {
+
+    private final Duration[] times = new Duration[64];
+    private int next;
+
+    @Setup(Level.Trial)
+    public void createTimes() {
+        for (int i = 0; i < times.length; i++)
+            times[i] = Duration.millis(i * 73_337L);
+    }
+
+    @Benchmark
+    public String formatTime() throws Throwable {
+        Duration time = times[next++ & (times.length - 1)];
+        return (String) Player.FORMAT_TIME.invokeExact(time);
+    }
+}
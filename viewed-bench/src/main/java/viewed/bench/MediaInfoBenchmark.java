@@ -0,0 +1,69 @@
+package viewed.bench;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AlbumArtLoader on a tagged MP3: tags only, artwork through a cold cache
+ * (decode, scale and cache write, like a first open) and artwork served
+ * from the warm in-memory cache. Also the sidecar image fallback.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MediaInfoBenchmark {
+
+    /** Edge length of the embedded cover: a typical one and a phone-camera sized one. */
+    @Param({"500", "4000"})
+    public int coverSize;
+
+    private File tagged;
+    private File sidecar;
+    private long modified;
+
+    @Setup(Level.Trial)
+    public void createFixtures() throws Exception {
+        Path dir = Fixtures.tempDir("media");
+        tagged = Fixtures.mp3(dir, "tagged.mp3", coverSize);
+        sidecar = Fixtures.mp3(dir, "sidecar.mp3", 0);
+        Files.write(dir.resolve("sidecar.jpg"), Fixtures.jpeg(coverSize));
+        modified = tagged.lastModified();
+    }
+
+    @Benchmark
+    public Object tagsOnly() throws Throwable {
+        Object tag = Player.READ_TAG.invokeExact(tagged);
+        return (Object) Player.TAGS_FROM.invokeExact(tagged, tag);
+    }
+
+    @Benchmark
+    public Object withArtworkWarm() throws Throwable {
+        return (Object) Player.LOAD_MEDIA_INFO.invokeExact(tagged);
+    }
+
+    @State(Scope.Thread)
+    public static class Cold {
+        /** The artwork cache keys on mtime, so moving it makes every lookup a miss. */
+        @Setup(Level.Invocation)
+        public void touch(MediaInfoBenchmark bench) {
+            bench.tagged.setLastModified(bench.modified += 1000);
+        }
+    }
+
+    @Benchmark
+    public Object withArtworkCold(Cold cold) throws Throwable {
+        return (Object) Player.LOAD_MEDIA_INFO.invokeExact(tagged);
+    }
+
+    @Benchmark
+    public Object localImage() throws Throwable {
+        return (java.awt.image.BufferedImage) Player.LOAD_LOCAL_IMAGE.invokeExact(sidecar, 300);
+    }
+}
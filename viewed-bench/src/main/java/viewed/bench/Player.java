@@ -0,0 +1,85 @@
+package viewed.bench;
+
+import javafx.util.Duration;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.InputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.List;
+
+/**
+ * Handles to the player's methods.
+ * <p>
+ * The player lives in the default package, which can't be imported from
+ * here, and some of the targets are private. Each method is looked up once,
+ * made accessible and kept in a static final handle, so calling it through
+ * {@code invokeExact} costs the same as a direct call once JIT-compiled.
+ */
+final class Player {
+
+    /** AlbumArtLoader.loadMediaInfo(File), returning the MediaInfo as Object. */
+    static final MethodHandle LOAD_MEDIA_INFO;
+    /** AlbumArtLoader.readTag(File), returning the Tag as Object. */
+    static final MethodHandle READ_TAG;
+    /** AlbumArtLoader.tagsFrom(File, Tag). */
+    static final MethodHandle TAGS_FROM;
+    /** AlbumArtLoader.loadLocalImage(File, int), private. */
+    static final MethodHandle LOAD_LOCAL_IMAGE;
+    /** PlaylistManager.parsePlaylist(InputStream). */
+    static final MethodHandle PARSE_PLAYLIST;
+    /** PlayerUI.formatTime(Duration), package-private. */
+    static final MethodHandle FORMAT_TIME;
+    /** CoverDecoder.decode(byte[], int, int). */
+    static final MethodHandle DECODE_COVER;
+    /** CoverDecoder.scaleToFit(BufferedImage, int, int). */
+    static final MethodHandle SCALE_TO_FIT;
+    /** new SearchIndex(), returned as Object. */
+    static final MethodHandle NEW_SEARCH_INDEX;
+    /** SearchIndex.put(int, String), taking the index as Object. */
+    static final MethodHandle INDEX_PUT;
+    /** SearchIndex.search(String, int), taking the index as Object. */
+    static final MethodHandle INDEX_SEARCH;
+
+    static {
+        // Before any player class initializes, so its caches land in a scratch directory
+        Fixtures.isolateHome();
+        try {
+            Class<?> tag = Class.forName("org.jaudiotagger.tag.Tag");
+            LOAD_MEDIA_INFO = find("AlbumArtLoader", "loadMediaInfo", File.class)
+                    .asType(MethodType.methodType(Object.class, File.class));
+            READ_TAG = find("AlbumArtLoader", "readTag", File.class)
+                    .asType(MethodType.methodType(Object.class, File.class));
+            TAGS_FROM = find("AlbumArtLoader", "tagsFrom", File.class, tag)
+                    .asType(MethodType.methodType(Object.class, File.class, Object.class));
+            LOAD_LOCAL_IMAGE = find("AlbumArtLoader", "loadLocalImage", File.class, int.class);
+            PARSE_PLAYLIST = find("PlaylistManager", "parsePlaylist", InputStream.class)
+                    .asType(MethodType.methodType(List.class, InputStream.class));
+            FORMAT_TIME = find("PlayerUI", "formatTime", Duration.class);
+            DECODE_COVER = find("CoverDecoder", "decode", byte[].class, int.class, int.class);
+            SCALE_TO_FIT = find("CoverDecoder", "scaleToFit", BufferedImage.class, int.class, int.class);
+            Class<?> searchIndex = Class.forName("SearchIndex");
+            NEW_SEARCH_INDEX = MethodHandles.lookup().findConstructor(searchIndex, MethodType.methodType(void.class))
+                    .asType(MethodType.methodType(Object.class));
+            INDEX_PUT = find("SearchIndex", "put", int.class, String.class)
+                    .asType(MethodType.methodType(void.class, Object.class, int.class, String.class));
+            INDEX_SEARCH = find("SearchIndex", "search", String.class, int.class)
+                    .asType(MethodType.methodType(int[].class, Object.class, String.class, int.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private Player() {
+    }
+
+    private static MethodHandle find(String className, String name, Class<?>... params)
+            throws ReflectiveOperationException {
+        Method method = Class.forName(className).getDeclaredMethod(name, params);
+        method.setAccessible(true);
+        return MethodHandles.lookup().unreflect(method);
+    }
+}
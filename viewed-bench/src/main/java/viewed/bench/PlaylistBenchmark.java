@@ -0,0 +1,38 @@
+package viewed.bench;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PlaylistManager.parsePlaylist on in-memory extended M3U playlists, so
+ * the numbers are parsing and storage rather than disk.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class PlaylistBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int lines;
+
+    private byte[] playlist;
+
+    @Setup(Level.Trial)
+    public void createPlaylist() {
+        Fixtures.isolateHome();
+        playlist = Fixtures.playlist(lines);
+    }
+
+    @Benchmark
+    public List<?> parse() throws Throwable {
+        InputStream in = new ByteArrayInputStream(playlist);
+        return (List<?>) Player.PARSE_PLAYLIST.invokeExact(in);
+    }
+}
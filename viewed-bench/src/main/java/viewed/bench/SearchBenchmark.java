@@ -0,0 +1,55 @@
+package viewed.bench;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SearchIndex over synthetic library entries: building it from scratch,
+ * and queries from a single short prefix (many words, many hits) to
+ * several words that narrow down to a few entries.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class SearchBenchmark {
+
+    @Param({"500000"})
+    public int entries;
+
+    private String[] texts;
+    private Object index;
+
+    @Setup(Level.Trial)
+    public void createIndex() throws Throwable {
+        texts = Fixtures.searchTexts(entries);
+        index = build();
+    }
+
+    /** Kept apart so build() isn't repeated for every query. */
+    @State(Scope.Benchmark)
+    public static class Query {
+        @Param({"a", "track 12", "artist 42 album 7 love"})
+        public String text;
+    }
+
+    @Benchmark
+    public int[] search(Query query) throws Throwable {
+        return (int[]) Player.INDEX_SEARCH.invokeExact(index, query.text, Integer.MAX_VALUE);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public Object build() throws Throwable {
+        Object built = (Object) Player.NEW_SEARCH_INDEX.invokeExact();
+        for (int i = 0; i < texts.length; i++)
+            Player.INDEX_PUT.invokeExact(built, i, texts[i]);
+        return built;
+    }
+}
@@ -1,23 +1,32 @@
 import javax.swing.*;
 
 public class About {
+
+    /**
+     * Shown by both the Swing and the JavaFX UI. The first line is the
+     * heading and the last one the license.
+     */
+    static final String TEXT = "Viewed Media Player\n"
+            + "By Starry Systems\n"
+            + "Build: 1A01\n"
+            + "Application Programming: Ben House\n"
+            + "Web Programming: Lakshin Hemachandran\n"
+            + "Made with ❤️, Java and IntelliJ IDEA\n"
+            + "Viewed is published under the GNU Affero General Public License v3.0";
+
     public void run() {
         JFrame frame = new JFrame("About Viewed Player");
         frame.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
         frame.setSize(350, 200);
 
-        JLabel label = new JLabel(
-                "<html><div style='text-align: center;'>"
-                        + "<h2>Viewed Media Player</h2>"
-                        + "<p>By Starry Systems</p>"
-                        + "<p>Build: 1A01</p>"
-                        + "<p>Application Programming: Ben House</p>"
-                        + "<p>Web Programming: Lakshin Hemachandran</p>"
-                        + "<p>Made with ❤️, Java and IntelliJ IDEA</p>"
-                        + "<p><em>Viewed is published under the GNU Affero General Public License v3.0</em></p>"
-                        + "</div></html>",
-                SwingConstants.CENTER
-        );
+        String[] lines = TEXT.split("\n");
+        StringBuilder html = new StringBuilder("<html><div style='text-align: center;'>");
+        html.append("<h2>").append(lines[0]).append("</h2>");
+        for (int i = 1; i < lines.length - 1; i++)
+            html.append("<p>").append(lines[i]).append("</p>");
+        html.append("<p><em>").append(lines[lines.length - 1]).append("</em></p>");
+        html.append("</div></html>");
+        JLabel label = new JLabel(html.toString(), SwingConstants.CENTER);
 
         frame.add(label);
         frame.setLocationRelativeTo(null); // center on screen
@@ -7,12 +7,21 @@ import org.jaudiotagger.tag.images.Artwork;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.image.BufferedImage;
-import java.io.ByteArrayInputStream;
 import java.io.File;
-import javax.imageio.ImageIO;
+import java.io.IOException;
 
 public class AlbumArtLoader {
 
+    private static final int ART_SIZE = 300;
+    private static final double PIXEL_SCALE = pixelScale();
+    private static final int ART_PIXELS = (int) Math.ceil(ART_SIZE * PIXEL_SCALE);
+
+    // Created on first use, so batch runs that never touch it don't create the directory
+    private static final class Cache {
+        static final ArtworkCache INSTANCE = new ArtworkCache(32L * 1024 * 1024, 256L * 1024 * 1024,
+                AppDirs.cacheDir("artwork"), ART_PIXELS);
+    }
+
     public static class MediaInfo {
         public ImageIcon artwork;
         public String title;
@@ -25,65 +34,179 @@ public class AlbumArtLoader {
             this.artist = artist;
             this.album = album;
         }
+
+        public MediaInfo withArtwork(ImageIcon artwork) {
+            return new MediaInfo(artwork, title, artist, album);
+        }
     }
 
     public static MediaInfo loadMediaInfo(File mp3File) {
-        ImageIcon icon = null;
+        Tag tag = readTag(mp3File);
+        Mp4BoxParser.Info mp4 = tag == null ? readMp4(mp3File) : null;
+        return tagsFrom(mp3File, tag, mp4).withArtwork(artworkFrom(mp3File, tag, mp4));
+    }
+
+    /**
+     * Reads the tag of a file once so the text fields and the artwork can be
+     * extracted separately. Returns null if the file has no readable tag.
+     */
+    public static Tag readTag(File mp3File) {
+        if (Mp4BoxParser.isMp4(mp3File))
+            return null; // Read with readMp4 instead
+        PlayerEvents.TagParse event = new PlayerEvents.TagParse();
+        event.begin();
+        Tag tag = null;
+        try {
+            AudioFile f = AudioFileIO.read(mp3File);
+            tag = f.getTag();
+        } catch (Exception e) {
+            // No readable tag
+        }
+        if (event.shouldCommit()) {
+            event.path = mp3File.getPath();
+            event.hasTag = tag != null;
+            event.commit();
+        }
+        return tag;
+    }
+
+    /**
+     * Parses the boxes of an MP4/M4V/M4A once, so the text fields and the
+     * cover can both be taken from the result. Null for other files and
+     * for MP4s that can't be read.
+     */
+    public static Mp4BoxParser.Info readMp4(File file) {
+        if (!Mp4BoxParser.isMp4(file))
+            return null;
+        try {
+            return Mp4BoxParser.parse(file);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    public static MediaInfo tagsFrom(File mp3File, Tag tag) {
+        return tagsFrom(mp3File, tag, tag == null ? readMp4(mp3File) : null);
+    }
+
+    /**
+     * Text metadata only (title, artist, album). Cheap compared to
+     * {@link #artworkFrom}, so callers can show it first.
+     *
+     * @param mp4 from {@link #readMp4}, used when there is no tag
+     */
+    public static MediaInfo tagsFrom(File mp3File, Tag tag, Mp4BoxParser.Info mp4) {
         String title = mp3File.getName();
         String artist = "Unknown Artist";
         String album = "Unknown Album";
 
-        try {
-            AudioFile f = AudioFileIO.read(mp3File);
-            Tag tag = f.getTag();
+        if (tag != null) {
+            if (tag.hasField(FieldKey.TITLE))
+                title = tag.getFirst(FieldKey.TITLE);
+            if (tag.hasField(FieldKey.ARTIST))
+                artist = tag.getFirst(FieldKey.ARTIST);
+            if (tag.hasField(FieldKey.ALBUM))
+                album = tag.getFirst(FieldKey.ALBUM);
+        } else if (mp4 != null) {
+            if (mp4.title() != null)
+                title = mp4.title();
+            if (mp4.artist() != null)
+                artist = mp4.artist();
+            if (mp4.album() != null)
+                album = mp4.album();
+        }
+
+        return new MediaInfo(null, title, artist, album);
+    }
 
+    /**
+     * Decodes the embedded cover, falling back to a .jpg/.png next to the file.
+     * Scaled results are kept in the {@link ArtworkCache}.
+     */
+    public static ImageIcon artworkFrom(File mp3File, Tag tag, Mp4BoxParser.Info mp4) {
+        PlayerEvents.ArtworkDecode event = new PlayerEvents.ArtworkDecode();
+        event.begin();
+        ArtworkCache.Lookup cached = cache().get(mp3File);
+        if (cached.found()) {
+            commit(event, mp3File, true, cached.image());
+            return cached.image() != null ? new ArtworkIcon(cached.image(), PIXEL_SCALE) : null;
+        }
+
+        BufferedImage scaled = decodeArtwork(mp3File, tag, mp4, ART_PIXELS);
+        cache().put(mp3File, scaled);
+        commit(event, mp3File, false, scaled);
+        return scaled != null ? new ArtworkIcon(scaled, PIXEL_SCALE) : null;
+    }
+
+    /**
+     * The embedded cover, or a .jpg/.png next to the file, decoded to fit in
+     * {@code size} pixels square. Bypasses the cache and creates no Swing
+     * objects, so it is safe in headless batch runs.
+     */
+    public static BufferedImage decodeArtwork(File mp3File, Tag tag, Mp4BoxParser.Info mp4, int size) {
+        BufferedImage scaled = null;
+        try {
             if (tag != null) {
-                // Text Metadata
-                if (tag.hasField(FieldKey.TITLE))
-                    title = tag.getFirst(FieldKey.TITLE);
-                if (tag.hasField(FieldKey.ARTIST))
-                    artist = tag.getFirst(FieldKey.ARTIST);
-                if (tag.hasField(FieldKey.ALBUM))
-                    album = tag.getFirst(FieldKey.ALBUM);
-
-                // Artwork
                 Artwork art = tag.getFirstArtwork();
                 if (art != null) {
-                    byte[] data = art.getBinaryData();
-                    ByteArrayInputStream bis = new ByteArrayInputStream(data);
-                    BufferedImage img = ImageIO.read(bis);
-                    if (img != null) {
-                        Image scaled = img.getScaledInstance(300, 300, Image.SCALE_SMOOTH);
-                        icon = new ImageIcon(scaled);
-                    }
+                    scaled = CoverDecoder.decode(art.getBinaryData(), size, size);
                 }
+            } else if (mp4 != null && mp4.cover() != null) {
+                scaled = CoverDecoder.decode(mp4.cover(), size, size);
             }
         } catch (Exception e) {
             // Fallback to searching for local images if tagging fails or no tag
         }
 
-        if (icon == null) {
-            icon = loadLocalImage(mp3File);
+        if (scaled == null) {
+            scaled = loadLocalImage(mp3File, size);
         }
+        return scaled;
+    }
 
-        return new MediaInfo(icon, title, artist, album);
+    private static void commit(PlayerEvents.ArtworkDecode event, File file, boolean cacheHit, BufferedImage image) {
+        if (event.shouldCommit()) {
+            event.path = file.getPath();
+            event.cacheHit = cacheHit;
+            event.width = image != null ? image.getWidth() : 0;
+            event.height = image != null ? image.getHeight() : 0;
+            event.commit();
+        }
     }
 
-    private static ImageIcon loadLocalImage(File mp3File) {
+    public static ArtworkCache cache() {
+        return Cache.INSTANCE;
+    }
+
+    private static BufferedImage loadLocalImage(File mp3File, int size) {
         try {
-            String base = mp3File.getAbsolutePath().replaceAll("\\.mp3$", "");
+            // Any extension, so song.m4a and movie.mp4 find their covers too
+            String base = mp3File.getAbsolutePath().replaceAll("\\.[^./\\\\]+$", "");
             File jpg = new File(base + ".jpg");
             File png = new File(base + ".png");
 
             File imageFile = jpg.exists() ? jpg : (png.exists() ? png : null);
             if (imageFile != null) {
-                BufferedImage img = ImageIO.read(imageFile);
-                Image scaled = img.getScaledInstance(300, 300, Image.SCALE_SMOOTH);
-                return new ImageIcon(scaled);
+                return CoverDecoder.decode(imageFile, size, size);
             }
         } catch (Exception e) {
             e.printStackTrace();
         }
         return null;
     }
+
+    /**
+     * Device pixels per logical pixel on the default screen, 2.0 on a 200% display.
+     */
+    private static double pixelScale() {
+        if (GraphicsEnvironment.isHeadless())
+            return 1.0;
+        try {
+            GraphicsConfiguration gc = GraphicsEnvironment.getLocalGraphicsEnvironment()
+                    .getDefaultScreenDevice().getDefaultConfiguration();
+            return Math.max(1.0, gc.getDefaultTransform().getScaleX());
+        } catch (Exception e) {
+            return 1.0;
+        }
+    }
 }
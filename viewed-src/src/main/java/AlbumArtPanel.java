@@ -58,6 +58,20 @@ public class AlbumArtPanel extends JPanel {
             artLabel.setForeground(Color.GRAY);
         }
 
+        setText(info);
+    }
+
+    /**
+     * Shows the text tags while the artwork is still loading.
+     */
+    public void showTags(AlbumArtLoader.MediaInfo info) {
+        artLabel.setIcon(null);
+        artLabel.setText("Loading artwork...");
+        artLabel.setForeground(Color.GRAY);
+        setText(info);
+    }
+
+    private void setText(AlbumArtLoader.MediaInfo info) {
         titleLabel.setText(info.title != null && !info.title.isEmpty() ? info.title : "Unknown Title");
         String artist = info.artist != null && !info.artist.isEmpty() ? info.artist : "Unknown Artist";
         String album = info.album != null && !info.album.isEmpty() ? info.album : "Unknown Album";
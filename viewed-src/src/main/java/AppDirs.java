@@ -0,0 +1,24 @@
+import java.io.File;
+
+/**
+ * Locations of the files Viewed keeps between runs (caches, indexes, history).
+ */
+public class AppDirs {
+
+    private static final File BASE = new File(System.getProperty("user.home"), ".viewed");
+
+    public static File baseDir() {
+        BASE.mkdirs();
+        return BASE;
+    }
+
+    /**
+     * A named cache directory, created on first use. Everything in here can
+     * be deleted at any time without losing user data.
+     */
+    public static File cacheDir(String name) {
+        File dir = new File(new File(BASE, "cache"), name);
+        dir.mkdirs();
+        return dir;
+    }
+}
@@ -0,0 +1,304 @@
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Two-tier cache for scaled cover art.
+ * <p>
+ * Tier one is an in-memory LRU of ready-to-paint images bounded by their
+ * pixel size in bytes. Tier two is a directory of pre-scaled PNG thumbnails
+ * that survives restarts, bounded by bytes on disk; when it grows past the
+ * cap the least recently used files are deleted. Entries are keyed by
+ * absolute path, modification time and size, so an edited file is never
+ * served a stale cover.
+ * <p>
+ * {@link #start()} indexes the directory in the background. Lookups work
+ * before that finishes, they just check the disk for each miss.
+ */
+public class ArtworkCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ArtworkCache.class);
+
+    /** Marks files we already know have no artwork. */
+    private static final BufferedImage NONE = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
+    private static final String NONE_SUFFIX = ".none";
+    /** Smallest amount a file takes on disk, so empty markers still count. */
+    private static final long BLOCK_BYTES = 4096;
+
+    private final long maxBytes;
+    private final long maxDiskBytes;
+    private final File dir;
+    private final int pixelSize;
+    private final LinkedHashMap<String, BufferedImage> memory = new LinkedHashMap<>(64, 0.75f, true);
+    private final Set<String> onDisk = ConcurrentHashMap.newKeySet();
+    private long memoryBytes;
+    private final AtomicLong diskBytes = new AtomicLong();
+    private final AtomicBoolean started = new AtomicBoolean();
+    private final AtomicBoolean trimming = new AtomicBoolean();
+
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong diskEvictions = new AtomicLong();
+
+    /**
+     * @param maxBytes     memory tier bound, in bytes of decoded pixels
+     * @param maxDiskBytes disk tier bound, in bytes of thumbnail files
+     * @param pixelSize    edge length the thumbnails are scaled to; part of the key
+     *                     so a display scale change doesn't serve blurry covers
+     */
+    public ArtworkCache(long maxBytes, long maxDiskBytes, File dir, int pixelSize) {
+        this.maxBytes = maxBytes;
+        this.maxDiskBytes = maxDiskBytes;
+        this.dir = dir;
+        this.pixelSize = pixelSize;
+    }
+
+    /**
+     * Indexes the thumbnails already on disk on a background thread and
+     * trims the directory if it is over its cap. Only the first call does anything.
+     */
+    public void start() {
+        if (!started.compareAndSet(false, true))
+            return;
+        Thread loader = new Thread(this::loadIndex, "artwork-cache-index");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    /**
+     * Result of a lookup: {@code found} is false on a miss. On a hit,
+     * {@code image} is null when the file is known to have no artwork.
+     */
+    public record Lookup(boolean found, BufferedImage image) {
+        static final Lookup MISS = new Lookup(false, null);
+    }
+
+    public Lookup get(File file) {
+        String key = key(file);
+
+        synchronized (this) {
+            BufferedImage img = memory.get(key);
+            if (img != null) {
+                memoryHits.incrementAndGet();
+                return new Lookup(true, img == NONE ? null : img);
+            }
+        }
+
+        String name = fileName(key);
+        if (onDisk.contains(name + NONE_SUFFIX)) {
+            diskHits.incrementAndGet();
+            putMemory(key, NONE);
+            return new Lookup(true, null);
+        }
+        File thumb = new File(dir, name + ".png");
+        if (onDisk.contains(name + ".png") || thumb.isFile()) {
+            try {
+                BufferedImage img = ImageIO.read(thumb);
+                if (img != null) {
+                    diskHits.incrementAndGet();
+                    // The modification time is the recency the disk tier is trimmed by
+                    thumb.setLastModified(System.currentTimeMillis());
+                    putMemory(key, img);
+                    return new Lookup(true, img);
+                }
+            } catch (IOException e) {
+                logger.warn("Dropping unreadable thumbnail {}", thumb, e);
+            }
+            onDisk.remove(name + ".png");
+            thumb.delete();
+        }
+
+        misses.incrementAndGet();
+        return Lookup.MISS;
+    }
+
+    /**
+     * Stores a scaled image, or null to remember that the file has no artwork.
+     */
+    public void put(File file, BufferedImage image) {
+        String key = key(file);
+        putMemory(key, image == null ? NONE : image);
+
+        String name = fileName(key);
+        try {
+            if (image == null) {
+                File marker = new File(dir, name + NONE_SUFFIX);
+                if (marker.createNewFile() && onDisk.add(marker.getName()))
+                    diskBytes.addAndGet(BLOCK_BYTES);
+            } else {
+                File tmp = new File(dir, name + ".tmp");
+                File thumb = new File(dir, name + ".png");
+                ImageIO.write(image, "png", tmp);
+                if (!tmp.renameTo(thumb)) {
+                    tmp.delete();
+                    return;
+                }
+                if (onDisk.add(thumb.getName()))
+                    diskBytes.addAndGet(diskSize(thumb));
+            }
+        } catch (IOException e) {
+            logger.warn("Could not write thumbnail for {}", file, e);
+        }
+        if (diskBytes.get() > maxDiskBytes)
+            trimDisk();
+    }
+
+    /**
+     * Deletes the least recently used files until the directory is back
+     * under 90% of its cap. One thread trims at a time; the others skip it.
+     */
+    private void trimDisk() {
+        if (!trimming.compareAndSet(false, true))
+            return;
+        try {
+            File[] files = dir.listFiles((d, n) -> n.endsWith(".png") || n.endsWith(NONE_SUFFIX));
+            if (files == null)
+                return;
+            long[] modified = new long[files.length];
+            Integer[] order = new Integer[files.length];
+            long total = 0;
+            for (int i = 0; i < files.length; i++) {
+                modified[i] = files[i].lastModified();
+                order[i] = i;
+                total += diskSize(files[i]);
+            }
+            Arrays.sort(order, Comparator.comparingLong(i -> modified[i]));
+            long target = maxDiskBytes / 10 * 9;
+            int deleted = 0;
+            for (int i = 0; i < order.length && total > target; i++) {
+                File f = files[order[i]];
+                long size = diskSize(f);
+                if (f.delete()) {
+                    onDisk.remove(f.getName());
+                    total -= size;
+                    deleted++;
+                }
+            }
+            diskBytes.set(total);
+            diskEvictions.addAndGet(deleted);
+            logger.info("Artwork cache: evicted {} thumbnails from disk, {} KB left", deleted, total / 1024);
+        } finally {
+            trimming.set(false);
+        }
+    }
+
+    private synchronized void putMemory(String key, BufferedImage image) {
+        BufferedImage old = memory.put(key, image);
+        if (old != null)
+            memoryBytes -= sizeOf(old);
+        memoryBytes += sizeOf(image);
+
+        Iterator<Map.Entry<String, BufferedImage>> it = memory.entrySet().iterator();
+        while (memoryBytes > maxBytes && it.hasNext()) {
+            Map.Entry<String, BufferedImage> eldest = it.next();
+            if (eldest.getKey().equals(key))
+                continue;
+            memoryBytes -= sizeOf(eldest.getValue());
+            it.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    private void loadIndex() {
+        long start = System.nanoTime();
+        String[] names = dir.list();
+        if (names == null)
+            return;
+        long bytes = 0;
+        for (String name : names) {
+            if (name.endsWith(".png") || name.endsWith(NONE_SUFFIX)) {
+                if (onDisk.add(name))
+                    bytes += diskSize(new File(dir, name));
+            } else if (name.endsWith(".tmp")) {
+                new File(dir, name).delete();
+            }
+        }
+        diskBytes.addAndGet(bytes);
+        logger.info("Artwork cache: {} thumbnails on disk ({} KB), indexed in {} ms",
+                onDisk.size(), diskBytes.get() / 1024, (System.nanoTime() - start) / 1_000_000);
+        if (diskBytes.get() > maxDiskBytes)
+            trimDisk();
+    }
+
+    private static long diskSize(File file) {
+        return Math.max(BLOCK_BYTES, file.length());
+    }
+
+    private static long sizeOf(BufferedImage image) {
+        return image == NONE ? 64 : (long) image.getWidth() * image.getHeight() * 4;
+    }
+
+    private String key(File file) {
+        return file.getAbsolutePath() + '|' + file.lastModified() + '|' + file.length() + '@' + pixelSize;
+    }
+
+    static String fileName(String key) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-1").digest(key.getBytes(StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder(hash.length * 2);
+            for (byte b : hash)
+                sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public long getMemoryHits() {
+        return memoryHits.get();
+    }
+
+    public long getDiskHits() {
+        return diskHits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public synchronized long getMemoryBytes() {
+        return memoryBytes;
+    }
+
+    public int getDiskEntries() {
+        return onDisk.size();
+    }
+
+    public long getDiskBytes() {
+        return diskBytes.get();
+    }
+
+    public long getDiskEvictions() {
+        return diskEvictions.get();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ArtworkCache[memHits=%d, diskHits=%d, misses=%d, evictions=%d, mem=%dKB/%dKB, "
+                        + "disk=%d (%dKB/%dKB), diskEvictions=%d]",
+                getMemoryHits(), getDiskHits(), getMisses(), getEvictions(), getMemoryBytes() / 1024, maxBytes / 1024,
+                getDiskEntries(), getDiskBytes() / 1024, maxDiskBytes / 1024, getDiskEvictions());
+    }
+}
@@ -0,0 +1,43 @@
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+/**
+ * An icon whose image has more pixels than its logical size, so covers stay
+ * sharp on HiDPI screens. At 200% scaling a 300x300 icon holds 600x600 pixels.
+ */
+public class ArtworkIcon extends ImageIcon {
+
+    private final BufferedImage image;
+    private final int width;
+    private final int height;
+
+    public ArtworkIcon(BufferedImage image, double scale) {
+        super(image);
+        this.image = image;
+        this.width = Math.max(1, (int) Math.round(image.getWidth() / scale));
+        this.height = Math.max(1, (int) Math.round(image.getHeight() / scale));
+    }
+
+    public BufferedImage getBufferedImage() {
+        return image;
+    }
+
+    @Override
+    public int getIconWidth() {
+        return width;
+    }
+
+    @Override
+    public int getIconHeight() {
+        return height;
+    }
+
+    @Override
+    public synchronized void paintIcon(Component c, Graphics g, int x, int y) {
+        Graphics2D g2 = (Graphics2D) g.create();
+        g2.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g2.drawImage(image, x, y, width, height, null);
+        g2.dispose();
+    }
+}
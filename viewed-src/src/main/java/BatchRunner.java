@@ -0,0 +1,280 @@
+import org.jaudiotagger.tag.Tag;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.*;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Headless {@code --batch} mode for processing media drops on servers.
+ * <p>
+ * Walks the given files and folders and, on a fixed pool, reads the tags of
+ * every media file, optionally exports its artwork scaled down, and checks
+ * that every entry of every playlist resolves. Each result is printed as one
+ * JSON line as soon as it is ready; progress and the final files/sec go to
+ * stderr. Nothing here touches Swing or JavaFX: artwork stays a
+ * BufferedImage and AWT runs headless.
+ */
+public class BatchRunner {
+
+    private static final Set<String> MEDIA = Set.of("mp3", "wav", "aiff", "aac", "m4a", "flac", "ogg", "mp4", "m4v");
+    private static final Set<String> PLAYLISTS = Set.of("m3u", "m3u8", "pls");
+    private static final int MAX_REPORTED_MISSING = 20;
+
+    private final int threads;
+    private final File artDir;
+    private final int artSize;
+    private final PrintStream out;
+
+    private final AtomicLong files = new AtomicLong();
+    private final AtomicLong media = new AtomicLong();
+    private final AtomicLong playlists = new AtomicLong();
+    private final AtomicLong artworks = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+
+    BatchRunner(int threads, File artDir, int artSize, PrintStream out) {
+        this.threads = threads;
+        this.artDir = artDir;
+        this.artSize = artSize;
+        this.out = out;
+    }
+
+    /**
+     * Entry point from {@link Main}. Returns the process exit code.
+     */
+    public static int run(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        // jaudiotagger logs a line per file at INFO
+        java.util.logging.Logger.getLogger("org.jaudiotagger").setLevel(java.util.logging.Level.SEVERE);
+
+        int threads = Runtime.getRuntime().availableProcessors();
+        File artDir = null;
+        int artSize = 300;
+        File outFile = null;
+        List<Path> inputs = new ArrayList<>();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--batch" -> { }
+                    case "--threads" -> threads = Math.max(1, Integer.parseInt(args[++i]));
+                    case "--art-dir" -> artDir = new File(args[++i]);
+                    case "--art-size" -> artSize = Math.max(1, Integer.parseInt(args[++i]));
+                    case "--out" -> outFile = new File(args[++i]);
+                    default -> {
+                        if (args[i].startsWith("--"))
+                            return usage("Unknown option " + args[i]);
+                        inputs.add(Paths.get(args[i]));
+                    }
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+            return usage("Bad option value");
+        }
+        if (inputs.isEmpty())
+            return usage("No files or folders given");
+        if (artDir != null && !artDir.isDirectory() && !artDir.mkdirs())
+            return usage("Cannot create " + artDir);
+
+        try (PrintStream out = outFile != null
+                ? new PrintStream(new BufferedOutputStream(new FileOutputStream(outFile), 1 << 16), false, StandardCharsets.UTF_8)
+                : new PrintStream(new FileOutputStream(FileDescriptor.out), false, StandardCharsets.UTF_8)) {
+            new BatchRunner(threads, artDir, artSize, out).process(inputs);
+        } catch (IOException e) {
+            System.err.println("Batch run failed: " + e.getMessage());
+            return 1;
+        }
+        return 0;
+    }
+
+    private static int usage(String problem) {
+        System.err.println(problem);
+        System.err.println("Usage: --batch [--threads N] [--art-dir DIR] [--art-size PX] [--out FILE] FILE_OR_FOLDER...");
+        return 2;
+    }
+
+    void process(List<Path> inputs) throws IOException {
+        long start = System.nanoTime();
+        AtomicInteger count = new AtomicInteger();
+        // Bounded queue so walking a huge tree doesn't queue every path up front
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads * 64), r -> {
+                    Thread t = new Thread(r, "batch-" + count.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+        ScheduledExecutorService progress = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "batch-progress");
+            t.setDaemon(true);
+            return t;
+        });
+        progress.scheduleAtFixedRate(() -> report("Progress", start), 5, 5, TimeUnit.SECONDS);
+
+        try {
+            for (Path input : inputs) {
+                Files.walkFileTree(input, new SimpleFileVisitor<>() {
+                    @Override
+                    public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                        String ext = extension(file);
+                        if (MEDIA.contains(ext))
+                            pool.execute(() -> media(file.toFile()));
+                        else if (PLAYLISTS.contains(ext))
+                            pool.execute(() -> playlist(file.toFile()));
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    @Override
+                    public FileVisitResult visitFileFailed(Path file, IOException e) {
+                        errors.incrementAndGet();
+                        emit("{\"type\":\"error\",\"path\":" + json(file.toString()) + ",\"error\":" + json(e.toString()) + "}");
+                        return FileVisitResult.CONTINUE;
+                    }
+                });
+            }
+            pool.shutdown();
+            pool.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pool.shutdownNow();
+        } finally {
+            progress.shutdownNow();
+        }
+        out.flush();
+        report("Done", start);
+    }
+
+    // --- Per file ---
+
+    private void media(File file) {
+        long start = System.nanoTime();
+        try {
+            Tag tag = AlbumArtLoader.readTag(file);
+            Mp4BoxParser.Info mp4 = tag == null ? AlbumArtLoader.readMp4(file) : null;
+            AlbumArtLoader.MediaInfo info = AlbumArtLoader.tagsFrom(file, tag, mp4);
+            String artwork = null;
+            if (artDir != null) {
+                BufferedImage image = AlbumArtLoader.decodeArtwork(file, tag, mp4, artSize);
+                if (image != null) {
+                    File target = new File(artDir, ArtworkCache.fileName(file.getAbsolutePath()) + ".png");
+                    ImageIO.write(image, "png", target);
+                    artworks.incrementAndGet();
+                    artwork = target.getPath();
+                }
+            }
+            emit("{\"type\":\"media\",\"path\":" + json(file.getPath())
+                    + ",\"hasTag\":" + (tag != null)
+                    + ",\"title\":" + json(info.title)
+                    + ",\"artist\":" + json(info.artist)
+                    + ",\"album\":" + json(info.album)
+                    + ",\"artwork\":" + json(artwork)
+                    + ",\"ms\":" + (System.nanoTime() - start) / 1_000_000 + "}");
+            media.incrementAndGet();
+        } catch (Exception | LinkageError e) {
+            failed(file, e);
+        }
+        files.incrementAndGet();
+    }
+
+    private void playlist(File file) {
+        long start = System.nanoTime();
+        int entries = 0, missing = 0, remote = 0;
+        List<String> missingEntries = new ArrayList<>();
+        try (PlaylistParser parser = PlaylistManager.openPlaylist(new FileInputStream(file), file.toURI())) {
+            while (parser.hasNext()) {
+                String location = parser.next().location();
+                entries++;
+                if (location.startsWith("http://") || location.startsWith("https://")) {
+                    remote++; // Not fetched, a batch run shouldn't hammer servers
+                } else if (!localFile(location).exists()) {
+                    missing++;
+                    if (missingEntries.size() < MAX_REPORTED_MISSING)
+                        missingEntries.add(location);
+                }
+            }
+            StringBuilder sb = new StringBuilder("{\"type\":\"playlist\",\"path\":").append(json(file.getPath()))
+                    .append(",\"valid\":").append(missing == 0)
+                    .append(",\"entries\":").append(entries)
+                    .append(",\"remote\":").append(remote)
+                    .append(",\"missing\":").append(missing)
+                    .append(",\"missingEntries\":[");
+            for (int i = 0; i < missingEntries.size(); i++)
+                sb.append(i > 0 ? "," : "").append(json(missingEntries.get(i)));
+            sb.append("],\"ms\":").append((System.nanoTime() - start) / 1_000_000).append('}');
+            emit(sb.toString());
+            playlists.incrementAndGet();
+        } catch (Exception e) {
+            failed(file, e);
+        }
+        files.incrementAndGet();
+    }
+
+    private static File localFile(String location) {
+        if (location.startsWith("file:")) {
+            try {
+                return new File(URI.create(location));
+            } catch (IllegalArgumentException e) {
+                // Not a valid file URI, treat it as a path
+            }
+        }
+        return new File(location);
+    }
+
+    private void failed(File file, Throwable e) {
+        errors.incrementAndGet();
+        emit("{\"type\":\"error\",\"path\":" + json(file.getPath()) + ",\"error\":" + json(e.toString()) + "}");
+    }
+
+    // --- Output ---
+
+    private void emit(String line) {
+        synchronized (out) {
+            out.println(line);
+        }
+    }
+
+    private void report(String label, long startNanos) {
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        long done = files.get();
+        System.err.printf(Locale.ROOT, "%s: %d files (%d media, %d playlists, %d artwork, %d errors) in %.1f s, %.0f files/sec%n",
+                label, done, media.get(), playlists.get(), artworks.get(), errors.get(), seconds,
+                seconds > 0 ? done / seconds : 0);
+    }
+
+    private static String extension(Path file) {
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return dot < 0 ? "" : name.substring(dot + 1).toLowerCase(Locale.ROOT);
+    }
+
+    static String json(String s) {
+        if (s == null)
+            return "null";
+        StringBuilder sb = new StringBuilder(s.length() + 2).append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20)
+                        sb.append(String.format("\\u%04x", (int) c));
+                    else
+                        sb.append(c);
+                }
+            }
+        }
+        return sb.append('"').toString();
+    }
+}
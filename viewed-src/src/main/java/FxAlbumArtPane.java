@@ -0,0 +1,91 @@
+import javafx.embed.swing.SwingFXUtils;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.control.Label;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.layout.Background;
+import javafx.scene.layout.BackgroundFill;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.CornerRadii;
+import javafx.scene.layout.StackPane;
+import javafx.scene.layout.VBox;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * JavaFX version of {@link AlbumArtPanel} for the native stage mode.
+ */
+public class FxAlbumArtPane extends BorderPane {
+
+    private final ImageView artView = new ImageView();
+    private final Label artLabel = new Label();
+    private final Label titleLabel = new Label(" ");
+    private final Label detailsLabel = new Label(" ");
+
+    public FxAlbumArtPane() {
+        setBackground(new Background(new BackgroundFill(Color.rgb(64, 64, 64), CornerRadii.EMPTY, Insets.EMPTY)));
+
+        // Art Center
+        artView.setPreserveRatio(true);
+        artView.setFitWidth(300);
+        artView.setFitHeight(300);
+        artView.setSmooth(true);
+        artLabel.setTextFill(Color.GRAY);
+        setCenter(new StackPane(artView, artLabel));
+
+        // Metadata Bottom
+        titleLabel.setTextFill(Color.WHITE);
+        titleLabel.setFont(Font.font("SansSerif", FontWeight.BOLD, 18));
+        detailsLabel.setTextFill(Color.LIGHTGRAY);
+        detailsLabel.setFont(Font.font("SansSerif", FontWeight.NORMAL, 14));
+
+        VBox metaPanel = new VBox(5, titleLabel, detailsLabel);
+        metaPanel.setAlignment(Pos.CENTER);
+        metaPanel.setPadding(new Insets(10));
+        metaPanel.setBackground(new Background(new BackgroundFill(Color.BLACK, CornerRadii.EMPTY, Insets.EMPTY)));
+        setBottom(metaPanel);
+    }
+
+    public void setMediaInfo(AlbumArtLoader.MediaInfo info) {
+        if (info == null) {
+            artView.setImage(null);
+            artLabel.setText("No Media Info");
+            titleLabel.setText(" ");
+            detailsLabel.setText(" ");
+            return;
+        }
+
+        Image image = toFxImage(info);
+        artView.setImage(image);
+        artLabel.setText(image != null ? "" : "No Artwork");
+        setText(info);
+    }
+
+    /**
+     * Shows the text tags while the artwork is still loading.
+     */
+    public void showTags(AlbumArtLoader.MediaInfo info) {
+        artView.setImage(null);
+        artLabel.setText("Loading artwork...");
+        setText(info);
+    }
+
+    private void setText(AlbumArtLoader.MediaInfo info) {
+        titleLabel.setText(info.title != null && !info.title.isEmpty() ? info.title : "Unknown Title");
+        String artist = info.artist != null && !info.artist.isEmpty() ? info.artist : "Unknown Artist";
+        String album = info.album != null && !info.album.isEmpty() ? info.album : "Unknown Album";
+        detailsLabel.setText(artist + " - " + album);
+    }
+
+    private static Image toFxImage(AlbumArtLoader.MediaInfo info) {
+        if (info.artwork instanceof ArtworkIcon icon)
+            return SwingFXUtils.toFXImage(icon.getBufferedImage(), null);
+        if (info.artwork != null && info.artwork.getImage() instanceof BufferedImage img)
+            return SwingFXUtils.toFXImage(img, null);
+        return null;
+    }
+}
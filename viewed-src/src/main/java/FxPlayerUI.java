@@ -0,0 +1,341 @@
+import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.beans.value.ChangeListener;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Scene;
+import javafx.scene.control.*;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.StackPane;
+import javafx.scene.layout.VBox;
+import javafx.scene.media.MediaPlayer;
+import javafx.scene.media.MediaView;
+import javafx.stage.FileChooser;
+import javafx.stage.Stage;
+import javafx.util.Duration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.prefs.Preferences;
+
+/**
+ * Player UI on a plain JavaFX {@link Stage}, selected with {@code --fx-stage}.
+ * <p>
+ * The Swing UI shows video through a JFXPanel, so every frame is rendered
+ * by JavaFX and then copied into a Swing back buffer. Here the
+ * {@link MediaView} is part of the stage's own scene and frames go straight
+ * to the screen. Start with {@code --software} on machines without a usable
+ * GPU to force the software pipeline.
+ */
+public class FxPlayerUI extends Application {
+
+    private static final Logger logger = LoggerFactory.getLogger(FxPlayerUI.class);
+
+    private final Preferences prefs = Preferences.userNodeForPackage(PlayerUI.class);
+    private final MediaInfoLoader mediaInfoLoader = new MediaInfoLoader(2, Platform::runLater);
+    private final PlayerSession session = new PlayerSession(new PlaybackHistory(), prefs.getDouble("preloadSeconds", 5));
+    private final SeekScheduler seekScheduler = session.seekScheduler();
+    private final Menu recentFilesMenu = new Menu("Recent Files");
+
+    private Stage stage;
+    private MediaPlayer mediaPlayer;
+    private final MediaView mediaView = new MediaView();
+    private final FxAlbumArtPane albumArtPane = new FxAlbumArtPane();
+    private final StatsOverlay statsOverlay = new StatsOverlay();
+    private final Label fileLabel = new Label("No media loaded :(");
+    private final Label timeLabel = new Label("00:00 / 00:00");
+    private final Slider seekBar = new Slider(0, 1000, 0); // Maximum becomes the track length in ms
+    private final Slider volumeSlider = new Slider(0, 100, 100);
+    private final ChangeListener<Duration> timeListener = (obs, oldTime, newTime) -> updatePosition(newTime);
+    private final PlayerSession.PositionView positionView = new PlayerSession.PositionView() {
+        @Override
+        public void setTimeText(String text) {
+            timeLabel.setText(text);
+        }
+
+        @Override
+        public int seekBarWidth() {
+            return (int) seekBar.getWidth();
+        }
+
+        @Override
+        public boolean isDragging() {
+            return seekBar.isValueChanging();
+        }
+
+        @Override
+        public void setSeekBar(int maximum, int value) {
+            seekBar.setMax(maximum);
+            seekBar.setValue(value);
+        }
+    };
+
+    private Playlist currentPlaylist = new Playlist();
+    private int currentPlaylistIndex = -1;
+
+    @Override
+    public void start(Stage stage) {
+        StartupTimeline.mark(StartupTimeline.FX_READY);
+        this.stage = stage;
+        stage.setTitle("Viewed - V0.2 (Ready for liftoff)");
+
+        // --- Menu Bar ---
+        MenuItem openItem = new MenuItem("Open Audio/Video file...");
+        MenuItem openPlaylistItem = new MenuItem("Open Playlist URL...");
+        MenuItem exitItem = new MenuItem("Exit");
+        Menu fileMenu = new Menu("File", null, openItem, openPlaylistItem, new SeparatorMenuItem(), exitItem,
+                recentFilesMenu);
+
+        MenuItem fullscreenItem = new MenuItem("Toggle Fullscreen");
+        MenuItem statsItem = new MenuItem("Toggle Stats Overlay");
+        Menu viewMenu = new Menu("View", null, fullscreenItem, statsItem);
+
+        MenuItem reloadItem = new MenuItem("Reload Player");
+        Menu playbackMenu = new Menu("Playback", null, reloadItem);
+
+        MenuItem aboutItem = new MenuItem("About");
+        Menu helpMenu = new Menu("Help", null, aboutItem);
+
+        MenuBar menuBar = new MenuBar(fileMenu, viewMenu, playbackMenu, helpMenu);
+
+        // --- Player area ---
+        mediaView.setPreserveRatio(true);
+        fileLabel.setStyle("-fx-font-size: 24; -fx-font-weight: bold; -fx-text-fill: white;");
+        albumArtPane.setVisible(false);
+        StackPane center = new StackPane(mediaView, albumArtPane, fileLabel, statsOverlay);
+        center.setStyle("-fx-background-color: black;");
+        mediaView.fitWidthProperty().bind(center.widthProperty());
+        mediaView.fitHeightProperty().bind(center.heightProperty());
+
+        // --- Control bar ---
+        Button playBtn = new Button("▶ Play");
+        Button pauseBtn = new Button("⏸ Pause");
+        HBox buttons = new HBox(5, playBtn, pauseBtn);
+        HBox volume = new HBox(5, new Label("🔊"), volumeSlider, timeLabel);
+        volume.setAlignment(Pos.CENTER_RIGHT);
+        HBox.setHgrow(volume, Priority.ALWAYS);
+        HBox controls = new HBox(buttons, volume);
+        controls.setPadding(new Insets(5));
+
+        BorderPane root = new BorderPane(center);
+        root.setTop(new VBox(menuBar, seekBar));
+        root.setBottom(controls);
+
+        stage.setScene(new Scene(root, 900, 700));
+        stage.setOnCloseRequest(e -> shutdown());
+        stage.show();
+        StartupTimeline.mark(StartupTimeline.FRAME_VISIBLE);
+        AlbumArtLoader.cache().start();
+
+        // --- Action handlers ---
+        openItem.setOnAction(e -> chooseFile());
+        openPlaylistItem.setOnAction(e -> askForPlaylistUrl());
+        exitItem.setOnAction(e -> {
+            shutdown();
+            Platform.exit();
+        });
+        fullscreenItem.setOnAction(e -> {
+            PlayerEvents.FullscreenToggle event = new PlayerEvents.FullscreenToggle();
+            event.begin();
+            event.entering = !stage.isFullScreen();
+            stage.setFullScreen(event.entering);
+            event.commit();
+        });
+        statsItem.setOnAction(e -> statsOverlay.toggle());
+        reloadItem.setOnAction(e -> {
+            disposePlayer();
+            logger.info("Player reloaded manually.");
+            new Alert(Alert.AlertType.INFORMATION, "Player reloaded!").showAndWait();
+        });
+        aboutItem.setOnAction(e -> new Alert(Alert.AlertType.INFORMATION, About.TEXT).showAndWait());
+
+        playBtn.setOnAction(e -> {
+            if (mediaPlayer != null)
+                mediaPlayer.play();
+        });
+        pauseBtn.setOnAction(e -> {
+            if (mediaPlayer != null)
+                mediaPlayer.pause();
+        });
+        volumeSlider.valueProperty().addListener((obs, oldValue, newValue) -> {
+            if (mediaPlayer != null)
+                mediaPlayer.setVolume(newValue.doubleValue() / 100.0);
+        });
+        seekBar.valueProperty().addListener((obs, oldValue, newValue) -> {
+            if (mediaPlayer != null && seekBar.isValueChanging()) {
+                session.thumbMoved();
+                seekScheduler.request(newValue.longValue());
+            }
+        });
+
+        refreshRecentFilesMenu();
+        session.start(() -> Platform.runLater(this::refreshRecentFilesMenu));
+
+        List<String> args = getParameters().getRaw();
+        if (args.contains("--perf-log"))
+            PerfLogger.start("fx-stage");
+    }
+
+    private void chooseFile() {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Select a media file");
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter(
+                "Audio/Video Files", "*.mp4", "*.m4v", "*.mp3", "*.m4a", "*.wav", "*.aac", "*.aiff"));
+        File file = chooser.showOpenDialog(stage);
+        if (file != null) {
+            currentPlaylist = new Playlist();
+            currentPlaylistIndex = -1;
+            open(file.getAbsolutePath(), null);
+        }
+    }
+
+    private void askForPlaylistUrl() {
+        TextInputDialog dialog = new TextInputDialog();
+        dialog.setHeaderText("Enter Playlist URL (M3U/PLS):");
+        String url = dialog.showAndWait().map(String::trim).orElse("");
+        if (url.isEmpty())
+            return;
+
+        new Thread(() -> {
+            Playlist playlist = new Playlist();
+            try (PlaylistParser parser = PlaylistManager.openPlaylist(url)) {
+                while (parser.hasNext()) {
+                    playlist.add(parser.next());
+                    if (playlist.size() == 1) {
+                        Platform.runLater(() -> {
+                            currentPlaylist = playlist;
+                            currentPlaylistIndex = 0;
+                            open(playlist.get(0), null);
+                        });
+                    }
+                }
+            } catch (Exception e) {
+                logger.error("Could not load playlist {}", url, e);
+            }
+            if (playlist.isEmpty())
+                Platform.runLater(() -> new Alert(Alert.AlertType.WARNING, "No tracks found in playlist!").showAndWait());
+        }, "playlist-loader").start();
+    }
+
+    /**
+     * Opens a file path or stream URL, reusing a preloaded player when given.
+     */
+    private void open(String location, MediaPlayer preloaded) {
+        boolean stream = location.startsWith("http");
+        boolean video = PlayerSession.isVideo(location);
+
+        try {
+            if (mediaPlayer != null)
+                mediaPlayer.currentTimeProperty().removeListener(timeListener);
+            mediaPlayer = session.replacePlayer(PlayerSession.uri(location), preloaded);
+            statsOverlay.setMediaPlayer(mediaPlayer);
+            mediaPlayer.setVolume(volumeSlider.getValue() / 100.0);
+            mediaPlayer.currentTimeProperty().addListener(timeListener);
+            mediaPlayer.setOnEndOfMedia(() -> {
+                session.recordEnd();
+                playNext();
+            });
+            mediaView.setMediaPlayer(mediaPlayer);
+            mediaPlayer.play();
+            if (stream)
+                session.recordStream();
+            else
+                session.recordPlay(new File(location).getAbsolutePath(), preloaded == null);
+
+            fileLabel.setVisible(false);
+            albumArtPane.setVisible(!video);
+            if (video) {
+                mediaInfoLoader.cancel();
+            } else if (stream) {
+                mediaInfoLoader.cancel();
+                albumArtPane.setMediaInfo(new AlbumArtLoader.MediaInfo(null, "Loading...", "Stream", ""));
+            } else {
+                mediaInfoLoader.load(new File(location), albumArtPane::showTags, albumArtPane::setMediaInfo);
+            }
+            stage.setTitle("Viewed - " + new File(location).getName());
+            statsOverlay.update("unknown", "unknown", "JavaFX Media");
+            if (video && !stream)
+                loadVideoInfo(new File(location));
+            logger.info("Opened {}", location);
+        } catch (Exception e) {
+            logger.error("Could not open {}", location, e);
+            new Alert(Alert.AlertType.ERROR, "Could not open:\n" + location + "\n" + e.getMessage()).showAndWait();
+        }
+    }
+
+    private void playNext() {
+        int next = currentPlaylistIndex + 1;
+        if (currentPlaylistIndex < 0 || next >= currentPlaylist.size())
+            return;
+        currentPlaylistIndex = next;
+        String location = currentPlaylist.get(next);
+        open(location, session.takePreloaded(next, location));
+    }
+
+    private void updatePosition(Duration now) {
+        session.positionChanged(now, currentPlaylist, currentPlaylistIndex);
+        Duration total = mediaPlayer.getTotalDuration();
+        if (now != null && !now.isUnknown() && total != null && !total.isUnknown() && !total.isIndefinite())
+            session.showPosition((long) now.toMillis(), (long) total.toMillis(), positionView);
+    }
+
+    /**
+     * Codec, resolution and title from the container, read off the FX thread.
+     */
+    private void loadVideoInfo(File file) {
+        MediaPlayer player = mediaPlayer;
+        CompletableFuture.runAsync(() -> {
+            try {
+                Mp4BoxParser.Info info = Mp4BoxParser.parse(file);
+                Platform.runLater(() -> {
+                    if (player != mediaPlayer)
+                        return;
+                    statsOverlay.update(info.codecDescription(), info.resolution(), "JavaFX Media");
+                    if (info.title() != null)
+                        stage.setTitle("Viewed - " + info.title());
+                });
+            } catch (IOException e) {
+                logger.warn("Could not read MP4 metadata of {}: {}", file.getName(), e.getMessage());
+            }
+        });
+    }
+
+    private void refreshRecentFilesMenu() {
+        recentFilesMenu.getItems().clear();
+        for (PlaybackHistory.Item recent : session.recentFiles()) {
+            String path = recent.path();
+            MenuItem item = new MenuItem(path);
+            item.setOnAction(e -> {
+                currentPlaylist = new Playlist();
+                currentPlaylistIndex = -1;
+                open(path, null);
+            });
+            recentFilesMenu.getItems().add(item);
+        }
+        if (recentFilesMenu.getItems().isEmpty()) {
+            MenuItem empty = new MenuItem("No recent files :(");
+            empty.setDisable(true);
+            recentFilesMenu.getItems().add(empty);
+        }
+    }
+
+    private void disposePlayer() {
+        if (mediaPlayer != null) {
+            mediaPlayer.currentTimeProperty().removeListener(timeListener);
+            mediaPlayer = null;
+        }
+        session.disposePlayer();
+    }
+
+    private void shutdown() {
+        disposePlayer();
+        mediaInfoLoader.shutdown();
+        session.shutdown();
+    }
+}
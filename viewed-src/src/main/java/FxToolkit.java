@@ -0,0 +1,59 @@
+import javafx.application.Platform;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Boots the JavaFX toolkit in the background while the Swing window is
+ * being built, instead of letting the first JFXPanel do it on the EDT.
+ */
+public class FxToolkit {
+
+    private static final Logger logger = LoggerFactory.getLogger(FxToolkit.class);
+    private static final CompletableFuture<Void> ready = new CompletableFuture<>();
+
+    public static void startAsync() {
+        Thread t = new Thread(() -> {
+            try {
+                Platform.startup(() -> {
+                    // Swing owns the windows, FX must not exit when no stage is showing
+                    Platform.setImplicitExit(false);
+                    StartupTimeline.mark(StartupTimeline.FX_READY);
+                    ready.complete(null);
+                });
+            } catch (IllegalStateException e) {
+                // Already running
+                ready.complete(null);
+            } catch (RuntimeException e) {
+                logger.error("Could not start the JavaFX toolkit", e);
+                ready.completeExceptionally(e);
+            }
+        }, "fx-startup");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    /**
+     * Blocks until the toolkit is running. Only waits if something needs FX
+     * in the first moments after launch.
+     */
+    public static void awaitReady() {
+        if (ready.isDone())
+            return;
+        long start = System.nanoTime();
+        ready.join();
+        logger.info("Waited {} ms for the FX toolkit", (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Like {@link Platform#runLater}, but also safe to call before the
+     * toolkit has finished starting; the task then runs once it has.
+     */
+    public static void runLater(Runnable task) {
+        if (ready.isDone())
+            Platform.runLater(task);
+        else
+            ready.thenRun(() -> Platform.runLater(task));
+    }
+}
@@ -0,0 +1,86 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Compact binary file holding the media library between runs.
+ * <p>
+ * Layout: magic, version, entry count, then per entry the modification
+ * time and size as longs followed by path, title, artist and album as
+ * length-prefixed UTF-8. The file is memory-mapped on load, so a warm start
+ * costs one sequential pass over the mapping and no per-file I/O.
+ */
+public class LibraryIndex {
+
+    private static final int MAGIC = 0x56574C42; // "VWLB"
+    private static final int VERSION = 1;
+
+    public static List<MediaLibrary.Entry> read(File file) throws IOException {
+        List<MediaLibrary.Entry> entries = new ArrayList<>();
+        if (!file.isFile())
+            return entries;
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buf.remaining() < 12 || buf.getInt() != MAGIC || buf.getInt() != VERSION)
+                return entries; // Unknown format, the next scan rebuilds it
+
+            int count = buf.getInt();
+            for (int i = 0; i < count; i++) {
+                long modified = buf.getLong();
+                long size = buf.getLong();
+                String path = readString(buf);
+                String title = readString(buf);
+                String artist = readString(buf);
+                String album = readString(buf);
+                entries.add(new MediaLibrary.Entry(path, modified, size, title, artist, album));
+            }
+        } catch (RuntimeException e) {
+            // Truncated or corrupt file
+            throw new IOException("Corrupt library index " + file, e);
+        }
+        return entries;
+    }
+
+    public static void write(File file, Collection<MediaLibrary.Entry> entries) throws IOException {
+        File tmp = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(entries.size());
+            for (MediaLibrary.Entry e : entries) {
+                out.writeLong(e.modified());
+                out.writeLong(e.size());
+                writeString(out, e.path());
+                writeString(out, e.title());
+                writeString(out, e.artist());
+                writeString(out, e.album());
+            }
+        }
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static String readString(ByteBuffer buf) throws IOException {
+        int length = buf.getInt();
+        // A corrupt length must not turn into a huge allocation
+        if (length < 0 || length > buf.remaining())
+            throw new IOException("Corrupt library index: string of " + length + " bytes at " + (buf.position() - 4));
+        byte[] bytes = new byte[length];
+        buf.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        byte[] bytes = (s != null ? s : "").getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+}
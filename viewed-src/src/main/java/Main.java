@@ -1,13 +1,40 @@
+import java.util.Arrays;
+import java.util.List;
+
 public class Main {
     public static void main(String[] args) {
+        List<String> options = Arrays.asList(args);
+        // Headless, so it has to branch off before anything touches AWT or FX
+        if (options.contains("--batch")) {
+            System.exit(BatchRunner.run(args));
+        }
+
+        StartupTimeline.mark(StartupTimeline.MAIN);
+        if (options.contains("--startup-report"))
+            StartupTimeline.enableReport();
+
+        // Software pipeline for machines without a usable GPU. JavaFX also
+        // falls back to it on its own when no hardware pipeline loads.
+        if (options.contains("--software"))
+            System.setProperty("prism.order", "sw");
+
+        if (options.contains("--fx-stage")) {
+            System.out.println("Starting in JavaFX stage mode...");
+            javafx.application.Application.launch(FxPlayerUI.class, args);
+            return;
+        }
+
+        // The FX toolkit boots while the EDT builds the window
+        FxToolkit.startAsync();
+
         javax.swing.SwingUtilities.invokeLater(() -> {
-            long time = System.nanoTime();
+            StartupTimeline.mark(StartupTimeline.EDT);
             System.out.println("Starting...");
-            System.out.println("Log time: " + time);
             PlayerUI playerUI = new PlayerUI();
             playerUI.createAndShowGUI();
             System.out.println("Called createAndShowGUI(), PlayerUI.class");
-
+            if (options.contains("--perf-log"))
+                FxToolkit.runLater(() -> PerfLogger.start("swing"));
         });
     }
 }
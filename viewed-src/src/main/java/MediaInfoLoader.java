@@ -0,0 +1,120 @@
+import org.jaudiotagger.tag.Tag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.swing.*;
+import java.io.File;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Loads {@link AlbumArtLoader.MediaInfo} off the UI threads.
+ * Text tags are published first, artwork second, both on the UI thread
+ * (the EDT unless another publisher is given).
+ * Starting a new load cancels the previous one so skipping through
+ * tracks never paints stale covers.
+ */
+public class MediaInfoLoader {
+
+    private static final Logger logger = LoggerFactory.getLogger(MediaInfoLoader.class);
+
+    private final ThreadPoolExecutor executor;
+    private final Executor publisher;
+    private final AtomicLong generation = new AtomicLong();
+    private CompletableFuture<AlbumArtLoader.MediaInfo> current;
+
+    public MediaInfoLoader() {
+        this(2, SwingUtilities::invokeLater);
+    }
+
+    /**
+     * @param publisher runs the callbacks, e.g. {@code Platform::runLater} for a JavaFX UI
+     */
+    public MediaInfoLoader(int threads, Executor publisher) {
+        this.publisher = publisher;
+        AtomicInteger count = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(16), r -> {
+                    Thread t = new Thread(r, "media-info-" + count.incrementAndGet());
+                    t.setDaemon(true);
+                    t.setPriority(Thread.NORM_PRIORITY - 1);
+                    return t;
+                }, new ThreadPoolExecutor.DiscardOldestPolicy());
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Starts loading metadata for a file.
+     *
+     * @param onTags    called on the UI thread with the text tags (artwork still null)
+     * @param onArtwork called on the UI thread with the complete info
+     */
+    public synchronized CompletableFuture<AlbumArtLoader.MediaInfo> load(File file,
+            Consumer<AlbumArtLoader.MediaInfo> onTags,
+            Consumer<AlbumArtLoader.MediaInfo> onArtwork) {
+        cancel();
+        long id = generation.get();
+        CompletableFuture<AlbumArtLoader.MediaInfo> result = new CompletableFuture<>();
+        Future<?> task = executor.submit(() -> run(file, id, result, onTags, onArtwork));
+        result.whenComplete((info, error) -> {
+            if (result.isCancelled())
+                task.cancel(true);
+        });
+        current = result;
+        return result;
+    }
+
+    /**
+     * Cancels the pending load, if any. Nothing more is published for it.
+     */
+    public synchronized void cancel() {
+        generation.incrementAndGet();
+        if (current != null) {
+            current.cancel(true);
+            current = null;
+        }
+    }
+
+    public void shutdown() {
+        cancel();
+        executor.shutdownNow();
+    }
+
+    private void run(File file, long id, CompletableFuture<AlbumArtLoader.MediaInfo> result,
+            Consumer<AlbumArtLoader.MediaInfo> onTags, Consumer<AlbumArtLoader.MediaInfo> onArtwork) {
+        try {
+            if (isStale(id, result))
+                return;
+            Tag tag = AlbumArtLoader.readTag(file);
+            Mp4BoxParser.Info mp4 = tag == null ? AlbumArtLoader.readMp4(file) : null;
+            AlbumArtLoader.MediaInfo tags = AlbumArtLoader.tagsFrom(file, tag, mp4);
+            publish(id, tags, onTags);
+
+            if (isStale(id, result))
+                return;
+            AlbumArtLoader.MediaInfo info = tags.withArtwork(AlbumArtLoader.artworkFrom(file, tag, mp4));
+            publish(id, info, onArtwork);
+            result.complete(info);
+        } catch (Exception e) {
+            logger.warn("Could not load media info for {}", file, e);
+            result.completeExceptionally(e);
+        }
+    }
+
+    private boolean isStale(long id, CompletableFuture<?> result) {
+        if (id != generation.get() || Thread.currentThread().isInterrupted()) {
+            result.cancel(false);
+            return true;
+        }
+        return false;
+    }
+
+    private void publish(long id, AlbumArtLoader.MediaInfo info, Consumer<AlbumArtLoader.MediaInfo> sink) {
+        publisher.execute(() -> {
+            if (id == generation.get())
+                sink.accept(info);
+        });
+    }
+}
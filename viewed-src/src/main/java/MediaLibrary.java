@@ -0,0 +1,403 @@
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.prefs.Preferences;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+/**
+ * Index of every media file under the user's library folders.
+ * <p>
+ * On start the previous index is memory-mapped from disk, then the roots
+ * are rescanned in parallel. Files whose size and modification time are
+ * unchanged are not parsed again. While running, the roots are watched so
+ * only files that actually change get re-read, once their events have
+ * been quiet for a moment. Titles, artists, albums and
+ * paths are kept in a {@link SearchIndex} that follows every change.
+ */
+public class MediaLibrary {
+
+    private static final Logger logger = LoggerFactory.getLogger(MediaLibrary.class);
+
+    private static final Set<String> EXTENSIONS = Set.of("mp3", "wav", "aiff", "aac", "m4a", "mp4", "m4v");
+    private static final String ROOTS_KEY = "libraryRoots";
+    // Copies and downloads write a file in many steps, each one an event
+    private static final long CHANGE_DELAY_MS = 500;
+
+    public record Entry(String path, long modified, long size, String title, String artist, String album) {
+    }
+
+    private final Preferences prefs = Preferences.userNodeForPackage(MediaLibrary.class);
+    private final File indexFile;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final List<Path> roots = new CopyOnWriteArrayList<>();
+    private final ExecutorService parsers;
+    private final ScheduledExecutorService background;
+    private final Map<WatchKey, Path> watchKeys = new ConcurrentHashMap<>();
+    private WatchService watcher;
+    private ScheduledFuture<?> pendingSave;
+    private final Map<Path, ScheduledFuture<?>> pendingChanges = new HashMap<>();
+
+    private final SearchIndex searchIndex = new SearchIndex();
+    // Search document numbers; those of removed files are handed out again
+    private final Map<String, Integer> docIds = new HashMap<>();
+    private final List<String> docPaths = new ArrayList<>();
+    private final Deque<Integer> freeDocs = new ArrayDeque<>();
+
+    public MediaLibrary() {
+        this(new File(AppDirs.baseDir(), "library.idx"));
+    }
+
+    public MediaLibrary(File indexFile) {
+        this.indexFile = indexFile;
+        AtomicInteger count = new AtomicInteger();
+        parsers = Executors.newFixedThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors() * 2), r -> {
+            Thread t = new Thread(r, "library-scan-" + count.incrementAndGet());
+            t.setDaemon(true);
+            t.setPriority(Thread.MIN_PRIORITY);
+            return t;
+        });
+        background = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "library");
+            t.setDaemon(true);
+            return t;
+        });
+        for (String root : prefs.get(ROOTS_KEY, "").split(File.pathSeparator)) {
+            if (!root.isBlank())
+                roots.add(Paths.get(root));
+        }
+    }
+
+    /**
+     * Loads the saved index, rescans the roots and starts watching them.
+     * Returns immediately; the work happens in the background.
+     */
+    public void start() {
+        background.execute(() -> {
+            load();
+            scan();
+            startWatching();
+        });
+    }
+
+    public void addRoot(File dir) {
+        Path root = dir.toPath().toAbsolutePath().normalize();
+        if (roots.contains(root))
+            return;
+        roots.add(root);
+        saveRoots();
+        background.execute(() -> {
+            scan(List.of(root));
+            register(root);
+        });
+    }
+
+    public void rescan() {
+        background.execute(this::scan);
+    }
+
+    public List<Path> getRoots() {
+        return List.copyOf(roots);
+    }
+
+    public Collection<Entry> getEntries() {
+        return Collections.unmodifiableCollection(entries.values());
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Entries whose title, artist, album or path has a word starting with
+     * each word of the query.
+     */
+    public List<Entry> search(String query, int limit) {
+        List<Entry> result = new ArrayList<>();
+        // Under the lock, so a number can't be given to another file in between
+        synchronized (docIds) {
+            int[] docs = searchIndex.search(query, limit);
+            if (docs == null)
+                return List.of();
+            for (int doc : docs) {
+                String path = docPaths.get(doc);
+                Entry e = path != null ? entries.get(path) : null;
+                if (e != null)
+                    result.add(e);
+            }
+        }
+        return result;
+    }
+
+    public void shutdown() {
+        parsers.shutdownNow();
+        background.shutdownNow();
+        try {
+            if (watcher != null)
+                watcher.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    private void load() {
+        long start = System.nanoTime();
+        try {
+            for (Entry e : LibraryIndex.read(indexFile))
+                entries.put(e.path(), e);
+            logger.info("Library: loaded {} entries in {} ms (warm start)",
+                    entries.size(), (System.nanoTime() - start) / 1_000_000);
+            start = System.nanoTime();
+            entries.values().forEach(this::index);
+            logger.info("Library: indexed {} entries for search in {} ms ({} words, ~{} KB)", searchIndex.size(),
+                    (System.nanoTime() - start) / 1_000_000, searchIndex.wordCount(), searchIndex.estimatedBytes() / 1024);
+        } catch (IOException e) {
+            logger.warn("Could not load library index, rebuilding", e);
+            entries.clear();
+        }
+    }
+
+    private void scan() {
+        scan(roots);
+    }
+
+    private void scan(List<Path> scanRoots) {
+        if (scanRoots.isEmpty())
+            return;
+        long start = System.nanoTime();
+        Set<String> seen = ConcurrentHashMap.newKeySet();
+        List<Future<?>> pending = new ArrayList<>();
+        AtomicInteger parsed = new AtomicInteger();
+
+        for (Path root : scanRoots) {
+            try {
+                Files.walkFileTree(root, new SimpleFileVisitor<>() {
+                    @Override
+                    public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                        if (attrs.isRegularFile() && isMedia(file)) {
+                            String path = file.toString();
+                            seen.add(path);
+                            Entry old = entries.get(path);
+                            if (old == null || old.modified() != attrs.lastModifiedTime().toMillis()
+                                    || old.size() != attrs.size()) {
+                                pending.add(parsers.submit(() -> {
+                                    update(file.toFile());
+                                    parsed.incrementAndGet();
+                                }));
+                            }
+                        }
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    @Override
+                    public FileVisitResult visitFileFailed(Path file, IOException e) {
+                        return FileVisitResult.CONTINUE;
+                    }
+                });
+            } catch (IOException e) {
+                logger.warn("Could not scan library folder {}", root, e);
+            }
+        }
+
+        for (Future<?> f : pending) {
+            try {
+                f.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                logger.warn("Library scan task failed", e.getCause());
+            }
+        }
+
+        // Drop files that disappeared from the scanned roots
+        for (String path : entries.keySet()) {
+            if (!seen.contains(path) && isUnder(path, scanRoots))
+                remove(path);
+        }
+
+        long elapsed = System.nanoTime() - start;
+        double perSecond = parsed.get() / Math.max(elapsed / 1e9, 1e-3);
+        logger.info("Library: scanned {} files, parsed {} in {} ms ({} files/sec)",
+                seen.size(), parsed.get(), elapsed / 1_000_000, String.format("%.0f", perSecond));
+        logger.info("Library: search index holds {} entries, {} words, ~{} KB",
+                searchIndex.size(), searchIndex.wordCount(), searchIndex.estimatedBytes() / 1024);
+        save();
+    }
+
+    private void update(File file) {
+        AlbumArtLoader.MediaInfo info = AlbumArtLoader.tagsFrom(file, AlbumArtLoader.readTag(file));
+        Entry entry = new Entry(file.getPath(), file.lastModified(), file.length(), info.title, info.artist, info.album);
+        entries.put(entry.path(), entry);
+        index(entry);
+    }
+
+    private void remove(String path) {
+        entries.remove(path);
+        synchronized (docIds) {
+            Integer doc = docIds.remove(path);
+            if (doc != null) {
+                searchIndex.remove(doc);
+                docPaths.set(doc, null);
+                freeDocs.push(doc);
+            }
+        }
+    }
+
+    private void index(Entry e) {
+        String text = String.join(" ", Objects.toString(e.title(), ""), Objects.toString(e.artist(), ""),
+                Objects.toString(e.album(), ""), e.path());
+        synchronized (docIds) {
+            int doc = docIds.computeIfAbsent(e.path(), path -> {
+                Integer free = freeDocs.poll();
+                if (free != null) {
+                    docPaths.set(free, path);
+                    return free;
+                }
+                docPaths.add(path);
+                return docPaths.size() - 1;
+            });
+            searchIndex.put(doc, text);
+        }
+    }
+
+    private void save() {
+        try {
+            LibraryIndex.write(indexFile, new ArrayList<>(entries.values()));
+        } catch (IOException e) {
+            logger.warn("Could not save library index", e);
+        }
+    }
+
+    private synchronized void scheduleSave() {
+        if (pendingSave != null)
+            pendingSave.cancel(false);
+        pendingSave = background.schedule(this::save, 2, TimeUnit.SECONDS);
+    }
+
+    private void saveRoots() {
+        StringJoiner joiner = new StringJoiner(File.pathSeparator);
+        roots.forEach(r -> joiner.add(r.toString()));
+        prefs.put(ROOTS_KEY, joiner.toString());
+    }
+
+    // --- Watching ---
+
+    private void startWatching() {
+        try {
+            watcher = FileSystems.getDefault().newWatchService();
+        } catch (IOException e) {
+            logger.warn("File watching unavailable, library only updates on rescan", e);
+            return;
+        }
+        roots.forEach(this::register);
+
+        Thread t = new Thread(this::watchLoop, "library-watch");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    private void register(Path root) {
+        if (watcher == null)
+            return;
+        try {
+            Files.walkFileTree(root, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                    watchKeys.put(dir.register(watcher, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE), dir);
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException e) {
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            logger.warn("Could not watch {}", root, e);
+        }
+    }
+
+    private void watchLoop() {
+        while (true) {
+            WatchKey key;
+            try {
+                key = watcher.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+            Path dir = watchKeys.get(key);
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == OVERFLOW) {
+                    rescan();
+                    continue;
+                }
+                scheduleChange(dir.resolve((Path) event.context()));
+            }
+            if (!key.reset())
+                watchKeys.remove(key);
+        }
+    }
+
+    /**
+     * Handles a path once no event has come for it in {@link #CHANGE_DELAY_MS};
+     * every new event starts the wait again.
+     */
+    private synchronized void scheduleChange(Path path) {
+        ScheduledFuture<?> pending = pendingChanges.get(path);
+        if (pending != null)
+            pending.cancel(false);
+        pendingChanges.put(path, background.schedule(() -> changed(path), CHANGE_DELAY_MS, TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * Events were coalesced, so this goes by what is on disk now rather
+     * than by the kind of the last event.
+     */
+    private void changed(Path path) {
+        synchronized (this) {
+            pendingChanges.remove(path);
+        }
+        if (!Files.exists(path)) {
+            String prefix = path + File.separator;
+            for (String p : entries.keySet()) {
+                if (p.equals(path.toString()) || p.startsWith(prefix))
+                    remove(p);
+            }
+        } else if (Files.isDirectory(path)) {
+            // New folder; known ones only report changes to their children
+            if (!watchKeys.containsValue(path)) {
+                register(path);
+                scan(List.of(path));
+            }
+            return;
+        } else if (isMedia(path) && Files.isRegularFile(path)) {
+            parsers.execute(() -> {
+                update(path.toFile());
+                scheduleSave();
+            });
+            return;
+        }
+        scheduleSave();
+    }
+
+    private static boolean isMedia(Path file) {
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return dot > 0 && EXTENSIONS.contains(name.substring(dot + 1).toLowerCase(Locale.ROOT));
+    }
+
+    private static boolean isUnder(String path, List<Path> scanRoots) {
+        for (Path root : scanRoots) {
+            if (Paths.get(path).startsWith(root))
+                return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,59 @@
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tiny in-process registry of timing readings for the stats overlay.
+ * <p>
+ * Recording is a couple of atomic writes, so hot paths can report freely;
+ * readers only look at the values when the overlay refreshes.
+ */
+public class Metrics {
+
+    public static final String MEDIA_OPEN = "media.open";
+    public static final String SEEK_SETTLE = "seek.settle";
+    public static final String RENDER_FRAME = "render.frame";
+    public static final String EDT_LATENCY = "latency.edt";
+    public static final String FX_LATENCY = "latency.fx";
+
+    private static final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public static Timer timer(String name) {
+        return timers.computeIfAbsent(name, n -> new Timer());
+    }
+
+    public static void record(String name, long nanos) {
+        timer(name).record(nanos);
+    }
+
+    public static class Timer {
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong total = new AtomicLong();
+        private final AtomicLong max = new AtomicLong();
+        private volatile long last;
+
+        public void record(long nanos) {
+            last = nanos;
+            count.incrementAndGet();
+            total.addAndGet(nanos);
+            max.accumulateAndGet(nanos, Math::max);
+        }
+
+        public long count() {
+            return count.get();
+        }
+
+        public long lastNanos() {
+            return last;
+        }
+
+        public long averageNanos() {
+            long n = count.get();
+            return n == 0 ? 0 : total.get() / n;
+        }
+
+        public long maxNanos() {
+            return max.get();
+        }
+    }
+}
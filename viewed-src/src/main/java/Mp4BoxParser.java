@@ -0,0 +1,277 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+
+/**
+ * Reads what the UI needs from an MP4/M4V/M4A file without touching the media data.
+ * <p>
+ * Top-level boxes are walked with one small positional read per header,
+ * so a multi-gigabyte {@code mdat} is skipped with a single jump whether
+ * {@code moov} comes before or after it. Only {@code moov} is memory-mapped
+ * and parsed: {@code mvhd} for the duration, each track's {@code tkhd},
+ * {@code hdlr} and {@code stsd} for resolution and codec, and the iTunes
+ * {@code ilst} for title, artist, album and cover.
+ */
+public class Mp4BoxParser {
+
+    private static final long MAX_MOOV_BYTES = 256L * 1024 * 1024;
+
+    private static final int FTYP = fourcc("ftyp");
+    private static final int MOOV = fourcc("moov");
+    private static final int MVHD = fourcc("mvhd");
+    private static final int TRAK = fourcc("trak");
+    private static final int TKHD = fourcc("tkhd");
+    private static final int MDIA = fourcc("mdia");
+    private static final int MINF = fourcc("minf");
+    private static final int STBL = fourcc("stbl");
+    private static final int STSD = fourcc("stsd");
+    private static final int HDLR = fourcc("hdlr");
+    private static final int UDTA = fourcc("udta");
+    private static final int META = fourcc("meta");
+    private static final int ILST = fourcc("ilst");
+    private static final int DATA = fourcc("data");
+    private static final int VIDE = fourcc("vide");
+    private static final int SOUN = fourcc("soun");
+    private static final int NAM = 0xA9000000 | fourcc("\0nam");
+    private static final int ART = 0xA9000000 | fourcc("\0ART");
+    private static final int ALB = 0xA9000000 | fourcc("\0alb");
+    private static final int COVR = fourcc("covr");
+
+    private static final Map<String, String> CODEC_NAMES = Map.of(
+            "avc1", "H.264", "avc3", "H.264", "hvc1", "HEVC", "hev1", "HEVC", "mp4v", "MPEG-4 Visual",
+            "av01", "AV1", "mp4a", "AAC", "ac-3", "AC-3", "ec-3", "E-AC-3", "alac", "ALAC");
+
+    /**
+     * What was found; fields are null or 0 when the file doesn't have them.
+     */
+    public record Info(long durationMillis, String videoCodec, String audioCodec, int width, int height,
+                       String title, String artist, String album, byte[] cover) {
+
+        /**
+         * e.g. "avc1 (H.264), mp4a (AAC)", or "unknown".
+         */
+        public String codecDescription() {
+            String video = describe(videoCodec);
+            String audio = describe(audioCodec);
+            if (video == null && audio == null)
+                return "unknown";
+            return video == null ? audio : audio == null ? video : video + ", " + audio;
+        }
+
+        public String resolution() {
+            return width > 0 && height > 0 ? width + "x" + height : "unknown";
+        }
+
+        private static String describe(String codec) {
+            if (codec == null)
+                return null;
+            String name = CODEC_NAMES.get(codec);
+            return name != null ? codec + " (" + name + ")" : codec;
+        }
+    }
+
+    public static boolean isMp4(File file) {
+        String name = file.getName().toLowerCase();
+        return name.endsWith(".mp4") || name.endsWith(".m4v") || name.endsWith(".m4a");
+    }
+
+    /**
+     * @throws IOException if the file can't be read or isn't an MP4, including
+     *                     when its boxes point outside the file
+     */
+    public static Info parse(File file) throws IOException {
+        try {
+            return walkTopLevel(file);
+        } catch (RuntimeException e) {
+            throw new IOException("Malformed MP4 file: " + file.getName(), e);
+        }
+    }
+
+    private static Info walkTopLevel(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            ByteBuffer header = ByteBuffer.allocate(16);
+            long pos = 0;
+            while (pos + 8 <= fileSize) {
+                header.clear();
+                if (fileSize - pos < 16)
+                    header.limit((int) (fileSize - pos));
+                while (header.hasRemaining() && channel.read(header, pos + header.position()) > 0) {
+                    // Positional reads, the channel position never moves
+                }
+                long size = header.getInt(0) & 0xFFFFFFFFL;
+                int type = header.getInt(4);
+                int headerBytes = 8;
+                if (size == 1 && header.position() >= 16) {
+                    size = header.getLong(8);
+                    headerBytes = 16;
+                } else if (size == 0) {
+                    size = fileSize - pos; // Runs to the end of the file
+                }
+                if (size < headerBytes || (pos == 0 && type != FTYP && !printable(type)))
+                    throw new IOException("Not an MP4 file: " + file.getName());
+
+                if (type == MOOV) {
+                    long length = Math.min(size, fileSize - pos) - headerBytes;
+                    if (length > MAX_MOOV_BYTES)
+                        throw new IOException("moov box too large: " + length);
+                    MappedByteBuffer moov = channel.map(FileChannel.MapMode.READ_ONLY, pos + headerBytes, length);
+                    Result result = new Result();
+                    result.walk(moov, 0, moov.limit(), null);
+                    return result.toInfo();
+                }
+                if (size > fileSize - pos)
+                    break; // Claims to run past the end
+                pos += size;
+            }
+            throw new IOException("No moov box in " + file.getName());
+        }
+    }
+
+    // --- moov contents ---
+
+    private static final class Track {
+        int handler;
+        int codec;
+        int width;
+        int height;
+    }
+
+    private static final class Result {
+        long durationMillis;
+        String videoCodec, audioCodec, title, artist, album;
+        int width, height;
+        byte[] cover;
+
+        void walk(ByteBuffer buf, int from, int to, Track track) {
+            int pos = from;
+            while (pos + 8 <= to) {
+                long size = buf.getInt(pos) & 0xFFFFFFFFL;
+                int type = buf.getInt(pos + 4);
+                int header = 8;
+                if (size == 1 && pos + 16 <= to) {
+                    size = buf.getLong(pos + 8);
+                    header = 16;
+                } else if (size == 0) {
+                    size = to - pos;
+                }
+                if (size < header || pos + size > to)
+                    return; // Truncated, keep what we have
+                int body = pos + header;
+                int end = (int) (pos + size);
+
+                if (type == MVHD) {
+                    mvhd(buf, body, end);
+                } else if (type == TRAK) {
+                    Track t = new Track();
+                    walk(buf, body, end, t);
+                    addTrack(t);
+                } else if (type == MDIA || type == MINF || type == STBL) {
+                    walk(buf, body, end, track);
+                } else if (type == TKHD && track != null) {
+                    tkhd(buf, body, end, track);
+                } else if (type == HDLR && track != null && end - body >= 12) {
+                    track.handler = buf.getInt(body + 8);
+                } else if (type == STSD && track != null && end - body >= 16) {
+                    // version/flags, entry count, then the first entry's size and format
+                    track.codec = buf.getInt(body + 12);
+                } else if (type == UDTA && track == null) {
+                    walk(buf, body, end, null);
+                } else if (type == META && track == null && end - body >= 8) {
+                    // ISO meta is a full box; QuickTime's starts straight with its children
+                    walk(buf, buf.getInt(body + 4) == HDLR ? body : body + 4, end, null);
+                } else if (type == ILST) {
+                    ilst(buf, body, end);
+                }
+                pos = end;
+            }
+        }
+
+        private void mvhd(ByteBuffer buf, int body, int end) {
+            if (body >= end)
+                return;
+            boolean v1 = buf.get(body) == 1;
+            // version/flags, creation and modification times, timescale, duration
+            if (body + (v1 ? 32 : 20) > end)
+                return;
+            long timescale = buf.getInt(body + (v1 ? 20 : 12)) & 0xFFFFFFFFL;
+            long duration = v1 ? buf.getLong(body + 24) : buf.getInt(body + 16) & 0xFFFFFFFFL;
+            if (timescale > 0 && duration >= 0)
+                durationMillis = duration < Long.MAX_VALUE / 1000 ? duration * 1000 / timescale : duration / timescale * 1000;
+        }
+
+        private static void tkhd(ByteBuffer buf, int body, int end, Track track) {
+            if (body >= end)
+                return;
+            int offset = body + (buf.get(body) == 1 ? 88 : 76);
+            if (offset + 8 > end)
+                return;
+            // 16.16 fixed point
+            track.width = buf.getInt(offset) >>> 16;
+            track.height = buf.getInt(offset + 4) >>> 16;
+        }
+
+        private void addTrack(Track t) {
+            if (t.handler == VIDE && videoCodec == null) {
+                videoCodec = t.codec != 0 ? string(t.codec) : null;
+                width = t.width;
+                height = t.height;
+            } else if (t.handler == SOUN && audioCodec == null) {
+                audioCodec = t.codec != 0 ? string(t.codec) : null;
+            }
+        }
+
+        private void ilst(ByteBuffer buf, int from, int to) {
+            int pos = from;
+            while (pos + 8 <= to) {
+                int size = buf.getInt(pos);
+                int type = buf.getInt(pos + 4);
+                if (size < 8 || pos + size > to)
+                    return;
+                int data = pos + 8;
+                // Each item holds a data box: size, "data", type, locale, then the value
+                if (data + 16 <= pos + size && buf.getInt(data + 4) == DATA) {
+                    int dataEnd = Math.min(pos + size, data + buf.getInt(data));
+                    byte[] value = new byte[Math.max(0, dataEnd - (data + 16))];
+                    buf.get(data + 16, value);
+                    if (type == NAM)
+                        title = new String(value, StandardCharsets.UTF_8);
+                    else if (type == ART)
+                        artist = new String(value, StandardCharsets.UTF_8);
+                    else if (type == ALB)
+                        album = new String(value, StandardCharsets.UTF_8);
+                    else if (type == COVR && cover == null && value.length > 0)
+                        cover = value;
+                }
+                pos += size;
+            }
+        }
+
+        Info toInfo() {
+            return new Info(durationMillis, videoCodec, audioCodec, width, height, title, artist, album, cover);
+        }
+    }
+
+    private static boolean printable(int fourcc) {
+        for (int shift = 24; shift >= 0; shift -= 8) {
+            int c = (fourcc >>> shift) & 0xFF;
+            if (c < 0x20 || c > 0x7E)
+                return false;
+        }
+        return true;
+    }
+
+    private static int fourcc(String s) {
+        return (s.charAt(0) & 0xFF) << 24 | (s.charAt(1) & 0xFF) << 16 | (s.charAt(2) & 0xFF) << 8 | (s.charAt(3) & 0xFF);
+    }
+
+    private static String string(int fourcc) {
+        return new String(new byte[]{(byte) (fourcc >>> 24), (byte) (fourcc >>> 16), (byte) (fourcc >>> 8), (byte) fourcc},
+                StandardCharsets.ISO_8859_1);
+    }
+}
@@ -0,0 +1,75 @@
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically logs process CPU load and JavaFX frame times, enabled with
+ * {@code --perf-log}. Run the same clip once in the Swing mode and once
+ * with {@code --fx-stage} to compare the two rendering paths.
+ */
+public class PerfLogger {
+
+    private static final Logger logger = LoggerFactory.getLogger(PerfLogger.class);
+
+    private final String mode;
+    private long lastPulse;
+    private long frames;
+    private long totalFrameNanos;
+    private long maxFrameNanos;
+
+    private PerfLogger(String mode) {
+        this.mode = mode;
+    }
+
+    /**
+     * Starts logging every 5 seconds. The FX toolkit must be starting or running.
+     */
+    public static void start(String mode) {
+        PerfLogger perf = new PerfLogger(mode);
+        Platform.runLater(() -> new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                perf.pulse(now);
+            }
+        }.start());
+
+        ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "perf-log");
+            t.setDaemon(true);
+            return t;
+        });
+        timer.scheduleAtFixedRate(perf::report, 5, 5, TimeUnit.SECONDS);
+    }
+
+    private synchronized void pulse(long now) {
+        if (lastPulse != 0) {
+            long frame = now - lastPulse;
+            frames++;
+            totalFrameNanos += frame;
+            maxFrameNanos = Math.max(maxFrameNanos, frame);
+        }
+        lastPulse = now;
+    }
+
+    private void report() {
+        double cpu = -1;
+        if (ManagementFactory.getOperatingSystemMXBean() instanceof com.sun.management.OperatingSystemMXBean os)
+            cpu = os.getProcessCpuLoad() * 100;
+
+        synchronized (this) {
+            double avg = frames == 0 ? 0 : totalFrameNanos / (double) frames / 1e6;
+            logger.info("[{}] cpu={}% fps={} frame avg={} ms max={} ms", mode,
+                    String.format("%.1f", cpu), frames / 5, String.format("%.2f", avg),
+                    String.format("%.2f", maxFrameNanos / 1e6));
+            frames = 0;
+            totalFrameNanos = 0;
+            maxFrameNanos = 0;
+        }
+    }
+}
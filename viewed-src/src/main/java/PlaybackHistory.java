@@ -0,0 +1,277 @@
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.prefs.BackingStoreException;
+import java.util.prefs.Preferences;
+
+/**
+ * Every file the user has played, with where they stopped, how often they
+ * played it and when.
+ * <p>
+ * Updates only touch memory and mark the path dirty. A background thread
+ * appends the latest state of dirty paths to an append-only log every few
+ * seconds, so repeated position updates collapse into one line and nothing
+ * on the playback path waits for disk. On load the log is replayed (later
+ * lines win) and rewritten with one line per file once it has grown well
+ * past that. The first time there is no log, the recent files list older
+ * versions kept in Preferences is imported and then removed.
+ */
+public class PlaybackHistory {
+
+    private static final Logger logger = LoggerFactory.getLogger(PlaybackHistory.class);
+
+    private static final int MAX_ITEMS = 5000;
+    private static final long FLUSH_INTERVAL_MS = 2000;
+
+    public record Item(String path, long positionMillis, int playCount, long lastPlayed) {
+    }
+
+    private static final String LEGACY_KEY = "recentFile";
+
+    private final File logFile;
+    private final Preferences legacyPrefs;
+    private final Map<String, Item> items = new HashMap<>();
+    private final Set<String> dirty = new LinkedHashSet<>();
+    private final ScheduledExecutorService writer;
+    private int logLines;
+
+    public PlaybackHistory() {
+        this(new File(AppDirs.baseDir(), "history.log"), Preferences.userNodeForPackage(PlayerUI.class));
+    }
+
+    /**
+     * @param legacyPrefs where older versions kept {@code recentFile0..N}, or null
+     */
+    public PlaybackHistory(File logFile, Preferences legacyPrefs) {
+        this.logFile = logFile;
+        this.legacyPrefs = legacyPrefs;
+        writer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "history-writer");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Replays the log in the background, then runs {@code onLoaded} there.
+     */
+    public void start(Runnable onLoaded) {
+        writer.execute(() -> {
+            load();
+            onLoaded.run();
+        });
+        writer.scheduleWithFixedDelay(this::flush, FLUSH_INTERVAL_MS, FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Counts a play and makes the file the most recent one.
+     */
+    public synchronized void recordOpen(String path) {
+        Item old = items.get(path);
+        items.put(path, new Item(path, old != null ? old.positionMillis() : 0,
+                old != null ? old.playCount() + 1 : 1, System.currentTimeMillis()));
+        dirty.add(path);
+    }
+
+    /**
+     * Remembers where playback is; cheap enough to call on every tick, as
+     * moves of less than a second are ignored.
+     */
+    public synchronized void recordPosition(String path, long positionMillis) {
+        Item old = items.get(path);
+        if (old == null || (positionMillis != 0 && Math.abs(old.positionMillis() - positionMillis) < 1000))
+            return;
+        items.put(path, new Item(path, positionMillis, old.playCount(), old.lastPlayed()));
+        dirty.add(path);
+    }
+
+    public synchronized Item get(String path) {
+        return items.get(path);
+    }
+
+    /**
+     * The most recently played files, newest first.
+     */
+    public synchronized List<Item> recent(int limit) {
+        PriorityQueue<Item> newest = new PriorityQueue<>(Comparator.comparingLong(Item::lastPlayed));
+        for (Item item : items.values()) {
+            newest.add(item);
+            if (newest.size() > limit)
+                newest.poll();
+        }
+        List<Item> result = new ArrayList<>(newest);
+        result.sort(Comparator.comparingLong(Item::lastPlayed).reversed());
+        return result;
+    }
+
+    /**
+     * Writes anything pending and stops the writer.
+     */
+    public void shutdown() {
+        writer.shutdown();
+        try {
+            writer.awaitTermination(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    // --- Persistence ---
+
+    private void load() {
+        long start = System.nanoTime();
+        Map<String, Item> loaded = new HashMap<>();
+        List<Item> imported = List.of();
+        int lines = 0;
+        if (logFile.isFile()) {
+            try (BufferedReader in = Files.newBufferedReader(logFile.toPath(), StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = in.readLine()) != null) {
+                    Item item = parse(line);
+                    if (item != null)
+                        loaded.put(item.path(), item);
+                    lines++;
+                }
+            } catch (IOException e) {
+                logger.warn("Could not read playback history {}", logFile, e);
+            }
+        } else if (legacyPrefs != null) {
+            imported = readLegacy();
+            for (Item item : imported)
+                loaded.putIfAbsent(item.path(), item);
+        }
+
+        synchronized (this) {
+            // Anything recorded while we were loading is newer
+            loaded.putAll(items);
+            items.clear();
+            items.putAll(loaded);
+            logLines = lines;
+            for (Item item : imported)
+                dirty.add(item.path());
+        }
+        logger.info("Playback history: {} files from {} log lines in {} ms", loaded.size(), lines,
+                (System.nanoTime() - start) / 1_000_000);
+
+        if (!imported.isEmpty()) {
+            // Only forget the old list once it is safely in the log
+            flush();
+            if (logFile.isFile()) {
+                removeLegacy();
+                logger.info("Imported {} recent files from preferences", imported.size());
+            }
+        }
+        if (needsCompaction())
+            compact();
+    }
+
+    /**
+     * The recent files list of older versions, newest first as
+     * {@code recentFile0}, {@code recentFile1}, ...
+     */
+    private List<Item> readLegacy() {
+        List<Item> imported = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        for (int i = 0; i <= PlayerSession.MAX_RECENT_FILES; i++) {
+            String path = legacyPrefs.get(LEGACY_KEY + i, null);
+            if (path == null)
+                continue;
+            // One millisecond apart keeps their order in recent()
+            imported.add(new Item(path, 0, 1, now - i));
+        }
+        return imported;
+    }
+
+    private void removeLegacy() {
+        try {
+            for (String key : legacyPrefs.keys()) {
+                if (key.startsWith(LEGACY_KEY))
+                    legacyPrefs.remove(key);
+            }
+            legacyPrefs.flush();
+        } catch (BackingStoreException e) {
+            logger.warn("Could not remove old recent files from preferences", e);
+        }
+    }
+
+    // Writer thread; the lock is only held to copy, never during I/O
+    private void flush() {
+        StringBuilder lines = new StringBuilder();
+        synchronized (this) {
+            if (dirty.isEmpty())
+                return;
+            for (String path : dirty)
+                lines.append(format(items.get(path)));
+            logLines += dirty.size();
+            dirty.clear();
+        }
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(
+                new FileOutputStream(logFile, true), StandardCharsets.UTF_8))) {
+            out.append(lines);
+        } catch (IOException e) {
+            logger.warn("Could not append to playback history", e);
+        }
+        if (needsCompaction())
+            compact();
+    }
+
+    private synchronized boolean needsCompaction() {
+        return logLines > 2 * items.size() + 1000 || items.size() > MAX_ITEMS;
+    }
+
+    /**
+     * Rewrites the log with one line per file, dropping the oldest beyond the cap.
+     */
+    private void compact() {
+        List<Item> keep;
+        int before;
+        synchronized (this) {
+            keep = recent(MAX_ITEMS);
+            items.keySet().retainAll(new HashSet<>(keep.stream().map(Item::path).toList()));
+            before = logLines;
+        }
+        File tmp = new File(logFile.getPath() + ".tmp");
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(tmp), StandardCharsets.UTF_8))) {
+            for (int i = keep.size() - 1; i >= 0; i--)
+                out.write(format(keep.get(i)));
+        } catch (IOException e) {
+            logger.warn("Could not compact playback history", e);
+            tmp.delete();
+            return;
+        }
+        try {
+            Files.move(tmp.toPath(), logFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            logger.info("Compacted playback history from {} to {} lines", before, keep.size());
+            synchronized (this) {
+                logLines = keep.size();
+            }
+        } catch (IOException e) {
+            logger.warn("Could not replace playback history", e);
+        }
+    }
+
+    // position, play count, last played, then the path so it may contain anything but a newline
+    private static String format(Item item) {
+        return item.positionMillis() + "\t" + item.playCount() + "\t" + item.lastPlayed() + "\t" + item.path() + "\n";
+    }
+
+    private static Item parse(String line) {
+        String[] parts = line.split("\t", 4);
+        if (parts.length < 4)
+            return null; // Torn write at the end of the log
+        try {
+            return new Item(parts[3], Long.parseLong(parts[0]), Integer.parseInt(parts[1]), Long.parseLong(parts[2]));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+import javafx.beans.value.ChangeListener;
+import javafx.scene.media.MediaPlayer;
+import javafx.util.Duration;
+
+import javax.swing.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Carries playback position ticks from the FX thread to the EDT.
+ * <p>
+ * The FX side only stores the latest position and length in a
+ * preallocated slot guarded by a sequence number (a seqlock), so a tick
+ * allocates nothing and the EDT never pairs a position with the wrong
+ * length. A Swing timer reads the slot at a bounded rate and hands it
+ * to the UI, so any number of ticks between two timer firings collapse
+ * into one update and Swing components are only touched on the EDT. Attaching a new player
+ * removes the listener from the previous one.
+ */
+public class PlaybackTickBridge {
+
+    /**
+     * Receives positions on the EDT.
+     */
+    public interface Sink {
+        void positionChanged(long positionMillis, long totalMillis);
+    }
+
+    private final Sink sink;
+    private final Timer timer;
+    private Consumer<Duration> fxListener;
+    private MediaPlayer player;
+    private final ChangeListener<Duration> listener =
+            (obs, oldTime, newTime) -> onTick(newTime, player.getTotalDuration());
+
+    // Odd while the FX thread is writing the pair below, +2 per tick
+    private final AtomicLong sequence = new AtomicLong();
+    private volatile long position;
+    private volatile long total = -1;
+    private long read; // EDT only, the sequence last delivered
+
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    public PlaybackTickBridge(int maxUpdatesPerSecond, Sink sink) {
+        this.sink = sink;
+        this.timer = new Timer(1000 / Math.max(1, maxUpdatesPerSecond), e -> deliver());
+        this.timer.setCoalesce(true);
+    }
+
+    /**
+     * Also called on the FX thread for every tick, before coalescing.
+     * For work that has to see each position, like preloading the next track.
+     */
+    public void setFxListener(Consumer<Duration> fxListener) {
+        this.fxListener = fxListener;
+    }
+
+    /**
+     * Starts following a player, detaching from the previous one. FX thread.
+     */
+    public void attach(MediaPlayer newPlayer) {
+        if (newPlayer == player)
+            return;
+        detach();
+        player = newPlayer;
+        if (player == null)
+            return;
+        player.currentTimeProperty().addListener(listener);
+        onTick(player.getCurrentTime(), player.getTotalDuration());
+        SwingUtilities.invokeLater(timer::start);
+    }
+
+    /**
+     * Stops following the current player. FX thread.
+     */
+    public void detach() {
+        if (player != null) {
+            player.currentTimeProperty().removeListener(listener);
+            player = null;
+        }
+        SwingUtilities.invokeLater(timer::stop);
+    }
+
+    public long getDelivered() {
+        return delivered.get();
+    }
+
+    public long getCoalesced() {
+        return coalesced.get();
+    }
+
+    // FX thread
+    void onTick(Duration now, Duration length) {
+        if (fxListener != null)
+            fxListener.accept(now);
+        publish(now == null || now.isUnknown() ? 0 : (long) now.toMillis(),
+                length == null || length.isUnknown() || length.isIndefinite() ? -1 : (long) length.toMillis());
+    }
+
+    // FX thread, the only writer
+    void publish(long positionMillis, long totalMillis) {
+        long s = sequence.get();
+        sequence.set(s + 1);
+        position = positionMillis;
+        total = totalMillis;
+        sequence.set(s + 2);
+    }
+
+    // EDT
+    void deliver() {
+        long s;
+        long p;
+        long t;
+        do {
+            s = sequence.get();
+            p = position;
+            t = total;
+            if ((s & 1) == 0 && sequence.get() == s)
+                break;
+            Thread.onSpinWait(); // Caught the writer mid-pair
+        } while (true);
+        if (s == read)
+            return;
+        coalesced.addAndGet((s - read) / 2 - 1);
+        delivered.incrementAndGet();
+        read = s;
+        sink.positionChanged(p, t);
+    }
+}
@@ -0,0 +1,90 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Java Flight Recorder events around the player's slow operations.
+ * <p>
+ * They cost next to nothing unless a recording is running. To see where
+ * time goes, start the player with
+ * {@code -XX:StartFlightRecording=filename=viewed.jfr} and open the file in
+ * JDK Mission Control or {@code jfr print --categories Viewed viewed.jfr}.
+ */
+public class PlayerEvents {
+
+    @Name("viewed.MediaOpen")
+    @Label("Media Open")
+    @Category({"Viewed", "Media"})
+    @Description("From constructing Media to the player reaching READY")
+    public static class MediaOpen extends Event {
+        @Label("URI")
+        public String uri;
+
+        @Label("Preloaded")
+        public boolean preloaded;
+    }
+
+    @Name("viewed.Seek")
+    @Label("Seek")
+    @Category({"Viewed", "Media"})
+    @Description("From a seek request until playback reports a position near the target")
+    public static class Seek extends Event {
+        @Label("Target")
+        @Timespan(Timespan.MILLISECONDS)
+        public long targetMillis;
+
+        @Label("Settled")
+        @Description("False if the seek was superseded or timed out before settling")
+        public boolean settled;
+    }
+
+    @Name("viewed.TagParse")
+    @Label("Tag Parse")
+    @Category({"Viewed", "Metadata"})
+    public static class TagParse extends Event {
+        @Label("Path")
+        public String path;
+
+        @Label("Has Tag")
+        public boolean hasTag;
+    }
+
+    @Name("viewed.ArtworkDecode")
+    @Label("Artwork Decode")
+    @Category({"Viewed", "Metadata"})
+    public static class ArtworkDecode extends Event {
+        @Label("Path")
+        public String path;
+
+        @Label("Cache Hit")
+        public boolean cacheHit;
+
+        @Label("Width")
+        public int width;
+
+        @Label("Height")
+        public int height;
+    }
+
+    @Name("viewed.PlaylistParse")
+    @Label("Playlist Parse")
+    @Category({"Viewed", "Playlist"})
+    public static class PlaylistParse extends Event {
+        @Label("Source")
+        public String source;
+
+        @Label("Entries")
+        public int entries;
+    }
+
+    @Name("viewed.FullscreenToggle")
+    @Label("Fullscreen Toggle")
+    @Category({"Viewed", "UI"})
+    public static class FullscreenToggle extends Event {
+        @Label("Entering")
+        public boolean entering;
+    }
+}
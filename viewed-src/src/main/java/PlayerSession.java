@@ -0,0 +1,273 @@
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
+import javafx.scene.media.Media;
+import javafx.scene.media.MediaPlayer;
+import javafx.util.Duration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * Player and history handling shared by the Swing UI and the JavaFX stage.
+ * <p>
+ * Owns the current {@link MediaPlayer} swap, seeking, preloading the next
+ * playlist track, the playback history with resume, and turning position
+ * ticks into time label text and seek bar thumb moves. The UIs only differ
+ * in the components they show this in.
+ */
+public class PlayerSession {
+
+    private static final Logger logger = LoggerFactory.getLogger(PlayerSession.class);
+
+    static final int MAX_RECENT_FILES = 10;
+    static final long RESUME_MIN_MS = 10_000;
+
+    /**
+     * The time label and seek bar of a UI. Called on that UI's thread.
+     */
+    interface PositionView {
+        void setTimeText(String text);
+
+        int seekBarWidth();
+
+        /** True while the user drags the thumb */
+        boolean isDragging();
+
+        /** Maximum is the track length in ms, value the position */
+        void setSeekBar(int maximum, int value);
+    }
+
+    private final PlaybackHistory history;
+    private final SeekScheduler seekScheduler = new SeekScheduler();
+    private final TrackPreloader preloader;
+    private Runnable historyChanged = () -> {
+    };
+
+    // FX thread
+    private MediaPlayer player;
+    private String historyPath; // null for streams
+
+    // UI thread
+    private final TimeText timeText = new TimeText();
+    private int thumbPixel = -1;
+    private int thumbMaximum = -1;
+
+    public PlayerSession(PlaybackHistory history, double preloadSeconds) {
+        this.history = history;
+        this.preloader = new TrackPreloader(preloadSeconds);
+    }
+
+    public SeekScheduler seekScheduler() {
+        return seekScheduler;
+    }
+
+    /**
+     * Loads the history in the background.
+     *
+     * @param historyChanged runs on any thread whenever the recent files change
+     */
+    public void start(Runnable historyChanged) {
+        this.historyChanged = historyChanged;
+        history.start(historyChanged);
+    }
+
+    public void shutdown() {
+        history.shutdown();
+    }
+
+    // --- Player ---
+
+    /**
+     * Replaces the current player, reusing a preloaded one when there is one.
+     * FX thread.
+     *
+     * @return the player now current
+     */
+    public MediaPlayer replacePlayer(String uri, MediaPlayer preloaded) {
+        PlayerEvents.MediaOpen event = new PlayerEvents.MediaOpen();
+        event.begin();
+        long openStart = System.nanoTime();
+
+        Media media = preloaded != null ? preloaded.getMedia() : new Media(uri);
+        if (preloaded == null)
+            preloader.cancel();
+        if (player != null && player != preloaded) {
+            player.stop();
+            player.dispose();
+        }
+        player = preloaded != null ? preloaded : new MediaPlayer(media);
+        seekScheduler.attach(player);
+        event.uri = uri;
+        event.preloaded = preloaded != null;
+        if (player.getStatus() == MediaPlayer.Status.UNKNOWN) {
+            player.setOnReady(() -> {
+                Metrics.record(Metrics.MEDIA_OPEN, System.nanoTime() - openStart);
+                StartupTimeline.mark(StartupTimeline.FIRST_MEDIA);
+                event.commit();
+            });
+        } else {
+            StartupTimeline.mark(StartupTimeline.FIRST_MEDIA);
+            event.commit();
+        }
+        return player;
+    }
+
+    /**
+     * Disposes the current and any preloaded player. FX thread.
+     */
+    public void disposePlayer() {
+        if (player != null) {
+            player.stop();
+            player.dispose();
+            player = null;
+        }
+        seekScheduler.attach(null);
+        preloader.cancel();
+    }
+
+    /**
+     * The preloaded player for a playlist track, or null. FX thread.
+     */
+    public MediaPlayer takePreloaded(int index, String location) {
+        return preloader.take(index, uri(location));
+    }
+
+    /**
+     * Feed every playback position here: it settles seeks, keeps the resume
+     * position and starts preloading the next track near the end. FX thread.
+     *
+     * @param index the playlist index now playing, or -1 outside a playlist
+     */
+    public void positionChanged(Duration position, Playlist playlist, int index) {
+        seekScheduler.positionChanged(position);
+        if (position == null || position.isUnknown())
+            return;
+        if (historyPath != null)
+            history.recordPosition(historyPath, (long) position.toMillis());
+        preloadNext(position, playlist, index + 1);
+    }
+
+    // FX thread
+    private void preloadNext(Duration position, Playlist playlist, int next) {
+        if (player == null || playlist == null || next <= 0 || next >= playlist.size() || preloader.isPreloading(next))
+            return;
+        Duration total = player.getTotalDuration();
+        if (total == null || total.isUnknown() || total.isIndefinite())
+            return;
+        if (total.toSeconds() - position.toSeconds() <= preloader.getLeadSeconds())
+            preloader.preload(next, uri(playlist.get(next)));
+    }
+
+    /**
+     * Updates the time label and the seek bar thumb for a tick. Runs for
+     * every tick, so components are only touched when what they show changes;
+     * moving the thumb by less than a pixel only boxes values for listeners.
+     * The thumb is left alone while dragging or until the last seek lands.
+     * UI thread.
+     */
+    public void showPosition(long positionMillis, long totalMillis, PositionView view) {
+        if (totalMillis <= 0)
+            return;
+        if (timeText.update(positionMillis, totalMillis))
+            view.setTimeText(timeText.text());
+        if (view.isDragging() || seekScheduler.isBusy())
+            return;
+        int total = (int) Math.min(totalMillis, Integer.MAX_VALUE);
+        int value = (int) Math.min(positionMillis, total);
+        int pixel = (int) ((long) value * view.seekBarWidth() / total);
+        if (pixel == thumbPixel && total == thumbMaximum)
+            return;
+        thumbPixel = pixel;
+        thumbMaximum = total;
+        view.setSeekBar(total, value);
+    }
+
+    /**
+     * The user moved the thumb, so the next tick has to put it back. UI thread.
+     */
+    public void thumbMoved() {
+        thumbPixel = -1;
+    }
+
+    // --- History ---
+
+    /**
+     * Counts a play in the history and, for a fresh player, picks up where
+     * the file was left off last time. FX thread, after {@link #replacePlayer}.
+     */
+    public void recordPlay(String path, boolean resume) {
+        PlaybackHistory.Item last = history.get(path);
+        history.recordOpen(path);
+        historyPath = path;
+        historyChanged.run();
+
+        if (!resume || last == null || last.positionMillis() < RESUME_MIN_MS)
+            return;
+        MediaPlayer resumed = player;
+        Runnable seek = () -> {
+            Duration total = resumed.getTotalDuration();
+            // Not worth resuming a few seconds before the end
+            if (total == null || total.isUnknown() || last.positionMillis() < total.toMillis() - RESUME_MIN_MS) {
+                logger.info("Resuming {} at {}", path, TimeText.format(last.positionMillis()));
+                seekScheduler.request(last.positionMillis());
+            }
+        };
+        if (resumed.getStatus() == MediaPlayer.Status.UNKNOWN) {
+            resumed.statusProperty().addListener(new ChangeListener<>() {
+                @Override
+                public void changed(ObservableValue<? extends MediaPlayer.Status> obs,
+                                    MediaPlayer.Status oldStatus, MediaPlayer.Status newStatus) {
+                    if (newStatus != MediaPlayer.Status.UNKNOWN) {
+                        obs.removeListener(this);
+                        if (resumed == player && newStatus != MediaPlayer.Status.HALTED)
+                            seek.run();
+                    }
+                }
+            });
+        } else {
+            seek.run();
+        }
+    }
+
+    /**
+     * Streams have no position worth keeping. FX thread.
+     */
+    public void recordStream() {
+        historyPath = null;
+    }
+
+    /**
+     * Played to the end, so the next open starts from the top. FX thread.
+     */
+    public void recordEnd() {
+        if (historyPath != null)
+            history.recordPosition(historyPath, 0);
+    }
+
+    /**
+     * The most recently played files, newest first, for the Recent Files menu.
+     */
+    public List<PlaybackHistory.Item> recentFiles() {
+        return history.recent(MAX_RECENT_FILES);
+    }
+
+    static String playCountText(PlaybackHistory.Item item) {
+        return "Played " + item.playCount() + (item.playCount() == 1 ? " time" : " times");
+    }
+
+    static boolean isVideo(String location) {
+        String lower = location.toLowerCase();
+        return lower.endsWith(".mp4") || lower.endsWith(".m4v");
+    }
+
+    /**
+     * The media URI of a playlist entry, a stream URL or a file path.
+     */
+    static String uri(String location) {
+        if (location.startsWith("http"))
+            return location;
+        return new File(location).toURI().toString();
+    }
+}
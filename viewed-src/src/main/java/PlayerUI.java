@@ -11,10 +11,9 @@ import javax.swing.*;
 import javax.swing.event.ChangeEvent;
 import java.awt.*;
 import java.io.File;
-import java.text.DecimalFormat;
-import java.util.ArrayList;
-import java.util.List;
+import java.io.IOException;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.prefs.Preferences;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -28,26 +27,73 @@ public class PlayerUI {
     private JFrame frame;
     private JPanel mainContentPanel;
     private CardLayout cardLayout;
-    private JFXPanel jfxPanel;
+    private JPanel videoPanel;
+    private JFXPanel jfxPanel; // created with the first video, see ensureJfxPanel()
     private AlbumArtPanel albumArtPanel;
-
-    private List<String> currentPlaylist = new ArrayList<>();
+    private StatsOverlay statsOverlay; // FX thread, created on first use
+    private VisualizerPanel visualizerPanel;
+    private final MediaInfoLoader mediaInfoLoader = new MediaInfoLoader();
+    private final MediaLibrary library = new MediaLibrary();
+    private final PlaylistPrefetcher prefetcher = new PlaylistPrefetcher(3, 16L * 1024 * 1024);
+    private final Preferences prefs = Preferences.userNodeForPackage(PlayerUI.class);
+    private final PlayerSession session = new PlayerSession(new PlaybackHistory(), prefs.getDouble("preloadSeconds", 5));
+    private final SeekScheduler seekScheduler = session.seekScheduler();
+    private final PlaybackTickBridge tickBridge = new PlaybackTickBridge(10, this::updatePosition);
+    private long endOfMediaNanos;
+    private final WaveformAnalyzer waveforms = new WaveformAnalyzer(AppDirs.cacheDir("waveforms"));
+    private final ThumbnailStrip thumbnails = new ThumbnailStrip(AppDirs.cacheDir("thumbnails"), seekScheduler::isBusy);
+    private ThumbnailStrip.Sheet thumbnailSheet; // EDT
+    private JWindow previewWindow;
+    private JLabel previewLabel;
+
+    private Playlist currentPlaylist = new Playlist();
     private int currentPlaylistIndex = -1;
+    private PlaylistPanel playlistPanel;
 
     private boolean isSeeking = false;
-    private static final int MAX_RECENT_FILES = 5;
-    private final Preferences prefs = Preferences.userNodeForPackage(PlayerUI.class);
-    private final ArrayList<Object> recentFiles = new ArrayList<>();
+    private boolean updatingSeekBar = false;
+    private final PlayerSession.PositionView positionView = new PlayerSession.PositionView() {
+        @Override
+        public void setTimeText(String text) {
+            timeLabel.setText(text);
+        }
+
+        @Override
+        public int seekBarWidth() {
+            return seekBar.getWidth();
+        }
+
+        @Override
+        public boolean isDragging() {
+            return isSeeking;
+        }
+
+        @Override
+        public void setSeekBar(int maximum, int value) {
+            updatingSeekBar = true;
+            try {
+                if (seekBar.getMaximum() != maximum)
+                    seekBar.setMaximum(maximum);
+                seekBar.setValue(value);
+            } finally {
+                updatingSeekBar = false;
+            }
+        }
+    };
+    private static final String TITLE = "Viewed - V0.2 (Ready for liftoff)";
+    private volatile File currentVideo;
     private final JMenu recentFilesMenu = new JMenu("Recent Files");
     private boolean isFullscreen = false;
     private Rectangle previousBounds;
 
     private JLabel fileLabel;
     private JLabel timeLabel;
-    private JSlider seekBar;
+    private WaveformSeekBar seekBar;
 
     public void createAndShowGUI() {
-        frame = new JFrame("Viewed - V0.2 (Ready for liftoff)");
+        tickBridge.setFxListener(position -> session.positionChanged(position, currentPlaylist, currentPlaylistIndex));
+
+        frame = new JFrame(TITLE);
         frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         frame.setSize(900, 700);
         frame.setLayout(new BorderLayout());
@@ -67,12 +113,26 @@ public class PlayerUI {
 
         JMenu viewMenu = new JMenu("View");
         JMenuItem fullscreenItem = new JMenuItem("Toggle Fullscreen");
+        JMenuItem statsItem = new JMenuItem("Toggle Stats Overlay");
+        JCheckBoxMenuItem playlistItem = new JCheckBoxMenuItem("Playlist", prefs.getBoolean("showPlaylist", false));
         viewMenu.add(fullscreenItem);
+        viewMenu.add(statsItem);
+        JMenuItem searchItem = new JMenuItem("Search...");
+        searchItem.setAccelerator(KeyStroke.getKeyStroke(java.awt.event.KeyEvent.VK_F,
+                Toolkit.getDefaultToolkit().getMenuShortcutKeyMaskEx()));
+        viewMenu.add(playlistItem);
+        viewMenu.add(searchItem);
 
         JMenu playbackMenu = new JMenu("Playback");
         JMenuItem reloadItem = new JMenuItem("Reload Player");
         playbackMenu.add(reloadItem);
 
+        JMenu libraryMenu = new JMenu("Library");
+        JMenuItem addFolderItem = new JMenuItem("Add Folder...");
+        JMenuItem rescanItem = new JMenuItem("Rescan");
+        libraryMenu.add(addFolderItem);
+        libraryMenu.add(rescanItem);
+
         JMenu toolsMenu = new JMenu("Help");
         JMenuItem aboutItem = new JMenuItem("About");
         JMenuItem nothingItem = new JMenuItem("Help");
@@ -82,6 +142,7 @@ public class PlayerUI {
         menuBar.add(fileMenu);
         menuBar.add(viewMenu);
         menuBar.add(playbackMenu);
+        menuBar.add(libraryMenu);
         menuBar.add(toolsMenu);
         frame.setJMenuBar(menuBar);
 
@@ -91,21 +152,29 @@ public class PlayerUI {
         cardLayout = new CardLayout();
         mainContentPanel.setLayout(cardLayout);
 
-        jfxPanel = new JFXPanel();
+        videoPanel = new JPanel(new BorderLayout());
         albumArtPanel = new AlbumArtPanel();
+        visualizerPanel = new VisualizerPanel();
 
-        mainContentPanel.add(jfxPanel, "VIDEO");
-        mainContentPanel.add(albumArtPanel, "AUDIO");
+        JPanel audioPanel = new JPanel(new BorderLayout());
+        audioPanel.add(albumArtPanel, BorderLayout.CENTER);
+        audioPanel.add(visualizerPanel, BorderLayout.SOUTH);
+
+        mainContentPanel.add(videoPanel, "VIDEO");
+        mainContentPanel.add(audioPanel, "AUDIO");
 
         frame.add(mainContentPanel, BorderLayout.CENTER);
 
+        playlistPanel = new PlaylistPanel();
+        playlistPanel.setVisible(playlistItem.isSelected());
+        frame.add(playlistPanel, BorderLayout.EAST);
+
         // Label for audio/no video
         fileLabel = new JLabel("No media loaded :(");
         fileLabel.setHorizontalAlignment(SwingConstants.CENTER);
         fileLabel.setVerticalAlignment(SwingConstants.CENTER);
         fileLabel.setFont(new Font("SansSerif", Font.BOLD, 24));
-        jfxPanel.setLayout(new BorderLayout());
-        jfxPanel.add(fileLabel, BorderLayout.CENTER);
+        videoPanel.add(fileLabel, BorderLayout.CENTER);
 
         // --- Control bar ---
         JPanel controls = new JPanel(new BorderLayout());
@@ -127,36 +196,75 @@ public class PlayerUI {
         frame.add(controls, BorderLayout.SOUTH);
 
         // --- Seek bar ---
-        seekBar = new JSlider(0, 100, 0);
+        seekBar = new WaveformSeekBar(0, 1000, 0); // Maximum becomes the track length in ms
         frame.add(seekBar, BorderLayout.NORTH);
+        installSeekPreview();
 
         frame.setVisible(true);
+        StartupTimeline.mark(StartupTimeline.FRAME_VISIBLE);
 
         // --- Action handlers ---
         // --- Action handlers ---
         openItem.addActionListener(e -> chooseFile());
         openPlaylistItem.addActionListener(e -> askForPlaylistUrl());
-        exitItem.addActionListener(e -> System.exit(0));
+        exitItem.addActionListener(e -> {
+            shutdown();
+            System.exit(0);
+        });
+        frame.addWindowListener(new java.awt.event.WindowAdapter() {
+            @Override
+            public void windowClosing(java.awt.event.WindowEvent e) {
+                shutdown();
+            }
+        });
         fullscreenItem.addActionListener(e -> toggleFullscreen());
+        statsItem.addActionListener(e -> FxToolkit.runLater(() -> statsOverlay().toggle()));
+        playlistItem.addActionListener(e -> {
+            playlistPanel.setVisible(playlistItem.isSelected());
+            prefs.putBoolean("showPlaylist", playlistItem.isSelected());
+            frame.revalidate();
+        });
+        searchItem.addActionListener(e -> {
+            if (!playlistItem.isSelected())
+                playlistItem.doClick();
+            playlistPanel.focusSearch();
+        });
+        playlistPanel.setLibrary(library);
+        playlistPanel.setOnPlay(index -> {
+            currentPlaylistIndex = index;
+            playPlaylistTrack();
+        });
+        playlistPanel.setOnOpen(file -> {
+            String lower = file.getName().toLowerCase();
+            if (lower.endsWith(".mp4") || lower.endsWith(".m4v"))
+                openMediaFile(file);
+            else
+                openAudio(file);
+        });
 
         reloadItem.addActionListener(e -> {
             if (mediaPlayer != null) {
-                mediaPlayer.stop();
-                mediaPlayer.dispose();
+                Platform.runLater(() -> {
+                    tickBridge.detach();
+                    session.disposePlayer();
+                });
             }
             logger.info("Player reloaded manually.");
             JOptionPane.showMessageDialog(frame, "Player reloaded!");
         });
 
+        addFolderItem.addActionListener(e -> chooseLibraryFolder());
+        rescanItem.addActionListener(e -> library.rescan());
+
         aboutItem.addActionListener(e -> new About().run());
         nothingItem.addActionListener(e -> JOptionPane.showMessageDialog(frame, "Help not available yet."));
 
-        playBtn.addActionListener(e -> Platform.runLater(() -> {
+        playBtn.addActionListener(e -> FxToolkit.runLater(() -> {
             if (mediaPlayer != null)
                 mediaPlayer.play();
         }));
 
-        pauseBtn.addActionListener(e -> Platform.runLater(() -> {
+        pauseBtn.addActionListener(e -> FxToolkit.runLater(() -> {
             if (mediaPlayer != null)
                 mediaPlayer.pause();
         }));
@@ -168,76 +276,216 @@ public class PlayerUI {
         });
 
         seekBar.addChangeListener((ChangeEvent e) -> {
-            if (mediaPlayer == null)
+            if (mediaPlayer == null || updatingSeekBar)
                 return;
-            if (seekBar.getValueIsAdjusting()) {
-                isSeeking = true;
-                double percent = seekBar.getValue() / 100.0;
-                Platform.runLater(() -> {
-                    Duration total = mediaPlayer.getTotalDuration();
-                    if (total != null && !total.isUnknown()) {
-                        mediaPlayer.seek(total.multiply(percent));
-                    }
-                });
-            } else {
-                isSeeking = false;
+            // Every value is handed over; the scheduler keeps only the newest
+            isSeeking = seekBar.getValueIsAdjusting();
+            session.thumbMoved();
+            seekScheduler.request(seekBar.getValue());
+        });
+
+        refreshRecentFilesMenu();
+        session.start(() -> SwingUtilities.invokeLater(this::refreshRecentFilesMenu));
+
+        // Start indexing the on-disk thumbnail cache before the first track opens
+        AlbumArtLoader.cache().start();
+        library.start();
+    }
+
+    private void shutdown() {
+        logger.info("Position ticks: {} delivered, {} coalesced", tickBridge.getDelivered(), tickBridge.getCoalesced());
+        RenderScheduler.get().shutdown();
+        logger.info("{}", AlbumArtLoader.cache());
+        mediaInfoLoader.shutdown();
+        prefetcher.shutdown();
+        playlistPanel.shutdown();
+        library.shutdown();
+        thumbnails.shutdown();
+        waveforms.shutdown();
+        session.shutdown();
+    }
+
+    // --- Seek bar previews ---
+
+    private void installSeekPreview() {
+        previewLabel = new JLabel();
+        previewLabel.setOpaque(true);
+        previewLabel.setHorizontalTextPosition(SwingConstants.CENTER);
+        previewLabel.setVerticalTextPosition(SwingConstants.BOTTOM);
+        previewLabel.setBorder(BorderFactory.createLineBorder(Color.DARK_GRAY));
+        previewWindow = new JWindow(frame);
+        previewWindow.setFocusableWindowState(false);
+        previewWindow.add(previewLabel);
+
+        seekBar.addMouseMotionListener(new java.awt.event.MouseMotionAdapter() {
+            @Override
+            public void mouseMoved(java.awt.event.MouseEvent e) {
+                showSeekPreview(e.getX());
+            }
+
+            @Override
+            public void mouseDragged(java.awt.event.MouseEvent e) {
+                showSeekPreview(e.getX());
             }
         });
+        seekBar.addMouseListener(new java.awt.event.MouseAdapter() {
+            @Override
+            public void mouseExited(java.awt.event.MouseEvent e) {
+                previewWindow.setVisible(false);
+            }
+        });
+    }
 
-        loadRecentFiles();
+    private void showSeekPreview(int x) {
+        if (thumbnailSheet == null || !(seekBar.getUI() instanceof javax.swing.plaf.basic.BasicSliderUI ui)) {
+            previewWindow.setVisible(false);
+            return;
+        }
+        long millis = ui.valueForXPosition(x);
+        previewLabel.setIcon(new ImageIcon(thumbnailSheet.tileAt(millis)));
+        previewLabel.setText(formatTime(Duration.millis(millis)));
+        previewWindow.pack();
+        // Below the bar, which sits at the top of the window
+        Point origin = seekBar.getLocationOnScreen();
+        previewWindow.setLocation(origin.x + x - previewWindow.getWidth() / 2, origin.y + seekBar.getHeight() + 4);
+        previewWindow.setVisible(true);
+    }
+
+    private void chooseLibraryFolder() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle("Add a folder to the library");
+        chooser.setFileSelectionMode(JFileChooser.DIRECTORIES_ONLY);
+        if (chooser.showOpenDialog(frame) == JFileChooser.APPROVE_OPTION && chooser.getSelectedFile() != null) {
+            library.addRoot(chooser.getSelectedFile());
+            logger.info("Added library folder: {}", chooser.getSelectedFile());
+        }
     }
 
     private void askForPlaylistUrl() {
         String url = JOptionPane.showInputDialog(frame, "Enter Playlist URL (M3U/PLS):");
         if (url != null && !url.trim().isEmpty()) {
             new Thread(() -> {
-                List<String> tracks = PlaylistManager.parsePlaylist(url.trim());
-                if (!tracks.isEmpty()) {
-                    SwingUtilities.invokeLater(() -> {
-                        currentPlaylist = tracks;
-                        currentPlaylistIndex = 0;
-                        playPlaylistTrack();
-                    });
-                } else {
+                Playlist playlist = new Playlist();
+                SearchIndex searchIndex = new SearchIndex();
+                long start = System.nanoTime();
+                long indexNanos = 0;
+                try (PlaylistParser parser = PlaylistManager.openPlaylist(url.trim())) {
+                    while (parser.hasNext()) {
+                        PlaylistEntry entry = parser.next();
+                        // Indexed first, so the panel can search every entry it sees
+                        long indexStart = System.nanoTime();
+                        searchIndex.put(playlist.size(), PlaylistPanel.searchText(entry.location(), entry.title()));
+                        indexNanos += System.nanoTime() - indexStart;
+                        playlist.add(entry);
+                        // Start playing as soon as the first entry is known
+                        if (playlist.size() == 1) {
+                            SwingUtilities.invokeLater(() -> {
+                                currentPlaylist = playlist;
+                                currentPlaylistIndex = 0;
+                                playlistPanel.setPlaylist(playlist, searchIndex);
+                                playPlaylistTrack();
+                            });
+                        }
+                    }
+                    logger.info("Loaded playlist with {} entries in {} ms (~{} KB)", playlist.size(),
+                            (System.nanoTime() - start) / 1_000_000, playlist.estimatedBytes() / 1024);
+                    logger.info("Indexed playlist for search in {} ms ({} words, ~{} KB)", indexNanos / 1_000_000,
+                            searchIndex.wordCount(), searchIndex.estimatedBytes() / 1024);
+                    logger.debug("{}", PlaylistManager.fetcher());
+                } catch (Exception e) {
+                    logger.error("Could not load playlist {}", url, e);
+                }
+                SwingUtilities.invokeLater(() -> {
+                    if (currentPlaylist == playlist)
+                        playlistPanel.finishLoading();
+                });
+                if (playlist.isEmpty()) {
                     SwingUtilities
                             .invokeLater(() -> JOptionPane.showMessageDialog(frame, "No tracks found in playlist!"));
                 }
-            }).start();
+            }, "playlist-loader").start();
         }
     }
 
     private void playPlaylistTrack() {
+        playPlaylistTrack(null);
+    }
+
+    /**
+     * @param preloaded a player already prepared for this track by the {@link TrackPreloader}, or null
+     */
+    private void playPlaylistTrack(MediaPlayer preloaded) {
         if (currentPlaylist == null || currentPlaylist.isEmpty() ||
                 currentPlaylistIndex < 0 || currentPlaylistIndex >= currentPlaylist.size())
             return;
 
         String path = currentPlaylist.get(currentPlaylistIndex);
         logger.info("Playing playlist track {}: {}", currentPlaylistIndex, path);
+        playlistPanel.setCurrentIndex(currentPlaylistIndex);
+        prefetcher.prefetch(currentPlaylist, currentPlaylistIndex);
 
         // Check if it's a local file or URL
         if (path.startsWith("http") || path.startsWith("https")) {
-            playStream(path);
+            playStream(path, preloaded);
         } else {
             File f = new File(path);
             if (f.exists()) {
                 if (path.toLowerCase().endsWith(".mp4"))
-                    openMediaFile(f);
+                    openMediaFile(f, preloaded);
                 else
-                    openAudio(f);
+                    openAudio(f, preloaded);
+            } else if (preloaded != null) {
+                Platform.runLater(preloaded::dispose);
             }
         }
     }
 
-    private void playStream(String url) {
+    /**
+     * Replaces the current player, reusing a preloaded one when there is one.
+     * FX thread only.
+     *
+     * @return the media now playing
+     */
+    private Media replacePlayer(String uri, MediaPlayer preloaded) {
+        mediaPlayer = session.replacePlayer(uri, preloaded);
+        statsOverlay().setMediaPlayer(mediaPlayer);
+        return mediaPlayer.getMedia();
+    }
+
+    private StatsOverlay statsOverlay() {
+        if (statsOverlay == null)
+            statsOverlay = new StatsOverlay();
+        return statsOverlay;
+    }
+
+    /**
+     * The JFXPanel is only needed for video, so it is created the first time
+     * one is opened rather than while the window is being built. EDT.
+     */
+    private void ensureJfxPanel() {
+        if (jfxPanel != null)
+            return;
+        jfxPanel = new JFXPanel();
+        jfxPanel.setLayout(new BorderLayout());
+        videoPanel.remove(fileLabel);
+        jfxPanel.add(fileLabel, BorderLayout.CENTER);
+        videoPanel.add(jfxPanel, BorderLayout.CENTER);
+        videoPanel.revalidate();
+    }
+
+    private void playStream(String url, MediaPlayer preloaded) {
+        FxToolkit.awaitReady();
+        mediaInfoLoader.cancel();
+        thumbnailSheet = null;
+        thumbnails.cancel();
+        seekBar.setWaveform(null);
+        waveforms.cancel();
+        currentVideo = null;
+        frame.setTitle(TITLE);
         Platform.runLater(() -> {
             try {
-                if (mediaPlayer != null) {
-                    mediaPlayer.stop();
-                    mediaPlayer.dispose();
-                }
-
-                Media media = new Media(url);
-                mediaPlayer = new MediaPlayer(media);
+                Media media = replacePlayer(url, preloaded);
+                visualizerPanel.attachMediaPlayer(mediaPlayer);
                 mediaPlayer.play();
 
                 // Show metadata logic for streams
@@ -251,6 +499,7 @@ public class PlayerUI {
                 });
 
                 fileLabel.setVisible(false);
+                session.recordStream();
                 setupTimeListener();
             } catch (Exception e) {
                 logger.error("Error playing stream", e);
@@ -270,7 +519,7 @@ public class PlayerUI {
         JFileChooser chooser = new JFileChooser();
         chooser.setDialogTitle("Select a media file");
         chooser.setFileFilter(new javax.swing.filechooser.FileNameExtensionFilter(
-                "Audio/Video Files", "mp4", "m4v", "mp3", "wav", "aac", "aiff"));
+                "Audio/Video Files", "mp4", "m4v", "mp3", "m4a", "wav", "aac", "aiff"));
 
         int result = chooser.showOpenDialog(frame);
         if (result != JFileChooser.APPROVE_OPTION)
@@ -283,7 +532,8 @@ public class PlayerUI {
         String path = file.getAbsolutePath().toLowerCase();
         if (path.endsWith(".mp4") || path.endsWith(".m4v")) {
             openMediaFile(file);
-        } else if (path.endsWith(".mp3") || path.endsWith(".wav") || path.endsWith(".aiff") || path.endsWith(".aac")) {
+        } else if (path.endsWith(".mp3") || path.endsWith(".m4a") || path.endsWith(".wav") || path.endsWith(".aiff")
+                || path.endsWith(".aac")) {
             openAudio(file);
         } else {
             JOptionPane.showMessageDialog(frame, "Unsupported file type!");
@@ -291,19 +541,26 @@ public class PlayerUI {
     }
 
     private void openMediaFile(File file) {
+        openMediaFile(file, null);
+    }
+
+    private void openMediaFile(File file, MediaPlayer preloaded) {
         if (file == null)
             return;
 
+        FxToolkit.awaitReady();
+        ensureJfxPanel();
+        mediaInfoLoader.cancel();
+        thumbnailSheet = null;
+        thumbnails.request(file, sheet -> thumbnailSheet = sheet);
+        loadVideoInfo(file);
+        seekBar.setWaveform(null);
+        waveforms.cancel();
+
         Platform.runLater(() -> {
             try {
-                Media media = new Media(file.toURI().toString());
-
-                if (mediaPlayer != null) {
-                    mediaPlayer.stop();
-                    mediaPlayer.dispose();
-                }
-
-                mediaPlayer = new MediaPlayer(media);
+                replacePlayer(file.toURI().toString(), preloaded);
+                visualizerPanel.reset();
 
                 // Update MediaView
                 cardLayout.show(mainContentPanel, "VIDEO");
@@ -313,7 +570,7 @@ public class PlayerUI {
                     mediaView.setMediaPlayer(mediaPlayer);
                 }
 
-                StackPane root = new StackPane(mediaView);
+                StackPane root = new StackPane(mediaView, statsOverlay());
                 mediaView.setPreserveRatio(true);
                 mediaView.fitWidthProperty().bind(root.widthProperty());
                 mediaView.fitHeightProperty().bind(root.heightProperty());
@@ -324,8 +581,8 @@ public class PlayerUI {
                 fileLabel.setVisible(false);
                 mediaPlayer.play();
 
-                addRecentFile(file.getAbsolutePath());
                 setupTimeListener();
+                session.recordPlay(file.getAbsolutePath(), preloaded == null);
 
                 logger.info("Opened video file: {}", file.getName());
 
@@ -336,32 +593,76 @@ public class PlayerUI {
         });
     }
 
+    /**
+     * Reads codec, resolution and title from the container in the background
+     * and shows them in the stats overlay and the window title.
+     */
+    private void loadVideoInfo(File file) {
+        currentVideo = file;
+        frame.setTitle("Viewed - " + file.getName());
+        FxToolkit.runLater(() -> statsOverlay().update("unknown", "unknown", "JavaFX Media"));
+        CompletableFuture.runAsync(() -> {
+            Mp4BoxParser.Info info;
+            try {
+                long start = System.nanoTime();
+                info = Mp4BoxParser.parse(file);
+                logger.debug("Parsed MP4 boxes of {} in {} us", file.getName(), (System.nanoTime() - start) / 1000);
+            } catch (IOException e) {
+                logger.warn("Could not read MP4 metadata of {}: {}", file.getName(), e.getMessage());
+                return;
+            }
+            FxToolkit.runLater(() -> {
+                if (currentVideo == file)
+                    statsOverlay().update(info.codecDescription(), info.resolution(), "JavaFX Media");
+            });
+            if (info.title() != null) {
+                String title = info.artist() != null ? info.title() + " - " + info.artist() : info.title();
+                SwingUtilities.invokeLater(() -> {
+                    if (currentVideo == file)
+                        frame.setTitle("Viewed - " + title);
+                });
+            }
+        });
+    }
+
     private void openAudio(File file) {
+        openAudio(file, null);
+    }
+
+    private void openAudio(File file, MediaPlayer preloaded) {
         if (file == null)
             return;
 
+        FxToolkit.awaitReady();
+        thumbnailSheet = null;
+        thumbnails.cancel();
+        seekBar.setWaveform(null);
+        waveforms.request(file, seekBar::setWaveform);
+        currentVideo = null;
+        frame.setTitle(TITLE);
+
+        // Metadata loads in the background, tags first and artwork second
+        AlbumArtLoader.MediaInfo prefetched = prefetcher.take(file);
+        if (prefetched != null) {
+            mediaInfoLoader.cancel();
+            albumArtPanel.setMediaInfo(prefetched);
+        } else {
+            mediaInfoLoader.load(file, albumArtPanel::showTags, albumArtPanel::setMediaInfo);
+        }
+
         Platform.runLater(() -> {
             try {
-                Media media = new Media(file.toURI().toString());
-
-                if (mediaPlayer != null) {
-                    mediaPlayer.stop();
-                    mediaPlayer.dispose();
-                }
-
-                mediaPlayer = new MediaPlayer(media);
+                replacePlayer(file.toURI().toString(), preloaded);
+                visualizerPanel.attachMediaPlayer(mediaPlayer);
                 mediaPlayer.play();
 
                 fileLabel.setText(file.getName());
                 fileLabel.setVisible(true);
 
-                // Load metadata
-                AlbumArtLoader.MediaInfo info = AlbumArtLoader.loadMediaInfo(file);
-                albumArtPanel.setMediaInfo(info);
-                cardLayout.show(mainContentPanel, "AUDIO");
+                SwingUtilities.invokeLater(() -> cardLayout.show(mainContentPanel, "AUDIO"));
 
-                addRecentFile(file.getAbsolutePath());
                 setupTimeListener();
+                session.recordPlay(file.getAbsolutePath(), preloaded == null);
                 logger.info("Opened audio file: {}", file.getName());
 
             } catch (Exception e) {
@@ -376,32 +677,42 @@ public class PlayerUI {
         if (mediaPlayer == null)
             return;
 
-        mediaPlayer.currentTimeProperty().addListener((obs, oldTime, newTime) -> {
-            Platform.runLater(() -> {
-                Duration total = mediaPlayer.getTotalDuration();
-                if (total != null && !total.isUnknown()) {
-                    timeLabel.setText(formatTime(newTime) + " / " + formatTime(total));
-                    if (!isSeeking) {
-                        double progress = newTime.toMillis() / total.toMillis() * 100;
-                        seekBar.setValue((int) progress);
-                    }
-                }
-            });
-        });
+        tickBridge.attach(mediaPlayer);
 
         mediaPlayer.setOnEndOfMedia(() -> {
-            Platform.runLater(() -> {
-                if (currentPlaylist != null && !currentPlaylist.isEmpty()) {
-                    currentPlaylistIndex++;
-                    if (currentPlaylistIndex < currentPlaylist.size()) {
-                        SwingUtilities.invokeLater(this::playPlaylistTrack);
+            session.recordEnd();
+            if (currentPlaylist != null && !currentPlaylist.isEmpty()) {
+                currentPlaylistIndex++;
+                if (currentPlaylistIndex < currentPlaylist.size()) {
+                    // Start the prerolled player right away, the UI catches up on the EDT
+                    endOfMediaNanos = System.nanoTime();
+                    MediaPlayer next = session.takePreloaded(currentPlaylistIndex,
+                            currentPlaylist.get(currentPlaylistIndex));
+                    if (next != null) {
+                        next.setOnPlaying(() -> {
+                            next.setOnPlaying(null);
+                            logger.info("Gapless transition to track {}: {} ms gap", currentPlaylistIndex,
+                                    String.format("%.1f", (System.nanoTime() - endOfMediaNanos) / 1e6));
+                        });
+                        next.play();
                     }
+                    SwingUtilities.invokeLater(() -> playPlaylistTrack(next));
                 }
-            });
+            }
         });
     }
 
+    /**
+     * Position updates from the {@link PlaybackTickBridge}, on the EDT.
+     */
+    private void updatePosition(long positionMillis, long totalMillis) {
+        session.showPosition(positionMillis, totalMillis, positionView);
+    }
+
     private void toggleFullscreen() {
+        PlayerEvents.FullscreenToggle event = new PlayerEvents.FullscreenToggle();
+        event.begin();
+        event.entering = !isFullscreen;
         GraphicsDevice gd = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice();
         boolean wasPlaying = false;
         Duration currentTime = Duration.ZERO;
@@ -431,6 +742,7 @@ public class PlayerUI {
             isFullscreen = false;
             logger.info("Exited fullscreen");
         }
+        event.commit();
 
         if (mediaPlayer != null) {
             // Restore playback state
@@ -439,7 +751,7 @@ public class PlayerUI {
 
             Platform.runLater(() -> {
                 if (mediaPlayer != null) {
-                    mediaPlayer.seek(finalCurrentTime);
+                    seekScheduler.request((long) finalCurrentTime.toMillis());
                     if (finalWasPlaying) {
                         mediaPlayer.play();
                     }
@@ -448,59 +760,32 @@ public class PlayerUI {
         }
     }
 
-    private void loadRecentFiles() {
-        recentFiles.clear();
-        for (int i = 0; i <= MAX_RECENT_FILES; i++) {
-            String path = prefs.get("recentFile" + i, null);
-            if (path != null)
-                recentFiles.add(path);
-        }
-        refreshRecentFilesMenu();
-    }
-
-    private void addRecentFile(String path) {
-        recentFiles.removeIf(obj -> obj instanceof String && obj.equals(path));
-        recentFiles.add(0, path);
-        while (recentFiles.size() > MAX_RECENT_FILES)
-            recentFiles.remove(recentFiles.size() - 1);
-        for (int i = 0; i < recentFiles.size(); i++) {
-            Object obj = recentFiles.get(i);
-            if (obj instanceof String s)
-                prefs.put("recentFile" + i, s);
-        }
-        refreshRecentFilesMenu();
-    }
-
+    // EDT
     private void refreshRecentFilesMenu() {
         recentFilesMenu.removeAll();
-        boolean hasFiles = false;
-        for (Object obj : recentFiles) {
-            if (obj instanceof String path) {
-                JMenuItem item = new JMenuItem(path);
-                item.addActionListener(e -> {
-                    File file = new File(path);
-                    if (path.endsWith(".mp4") || path.endsWith(".m4v"))
-                        openMediaFile(file);
-                    else
-                        openAudio(file);
-                });
-                recentFilesMenu.add(item);
-                hasFiles = true;
-            }
+        for (PlaybackHistory.Item recent : session.recentFiles()) {
+            String path = recent.path();
+            JMenuItem item = new JMenuItem(path);
+            item.setToolTipText(PlayerSession.playCountText(recent));
+            item.addActionListener(e -> {
+                File file = new File(path);
+                if (PlayerSession.isVideo(path))
+                    openMediaFile(file);
+                else
+                    openAudio(file);
+            });
+            recentFilesMenu.add(item);
         }
-        if (!hasFiles) {
+        if (recentFilesMenu.getItemCount() == 0) {
             JMenuItem empty = new JMenuItem("No recent files :(");
             empty.setEnabled(false);
             recentFilesMenu.add(empty);
         }
     }
 
-    private String formatTime(Duration duration) {
+    static String formatTime(Duration duration) {
         if (duration == null || duration.isUnknown())
             return "00:00";
-        int totalSeconds = (int) Math.floor(duration.toSeconds());
-        int minutes = totalSeconds / 60;
-        int seconds = totalSeconds % 60;
-        return new DecimalFormat("00").format(minutes) + ":" + new DecimalFormat("00").format(seconds);
+        return TimeText.format((long) duration.toMillis());
     }
 }
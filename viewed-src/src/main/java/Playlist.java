@@ -0,0 +1,131 @@
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact, append-only storage for playlist entries. Reads as a list of locations.
+ * <p>
+ * Entries in large playlists usually share a handful of directories or URL
+ * prefixes, so each location is split at its last separator: the prefix is
+ * interned once and referenced by id, the remaining file name and the title
+ * are packed as UTF-8 into one shared byte array. A 500k-entry playlist
+ * costs a few tens of MB instead of several hundred for
+ * {@code List<String>} plus per-entry objects.
+ * <p>
+ * Safe to append from a loader thread while the UI reads.
+ */
+public class Playlist extends AbstractList<String> {
+
+    private final List<String> prefixes = new ArrayList<>();
+    private final Map<String, Integer> prefixIds = new HashMap<>();
+
+    private int size;
+    private int[] prefixOf = new int[16];
+    private int[] nameEnd = new int[16];  // name bytes run from the previous titleEnd to here
+    private int[] titleEnd = new int[16]; // title bytes run from nameEnd to here
+    private int[] durations = new int[16];
+    private byte[] bytes = new byte[1024];
+    private int used;
+
+    public synchronized void add(PlaylistEntry entry) {
+        if (size == prefixOf.length) {
+            int capacity = size * 2;
+            prefixOf = Arrays.copyOf(prefixOf, capacity);
+            nameEnd = Arrays.copyOf(nameEnd, capacity);
+            titleEnd = Arrays.copyOf(titleEnd, capacity);
+            durations = Arrays.copyOf(durations, capacity);
+        }
+
+        String location = entry.location();
+        int split = Math.max(location.lastIndexOf('/'), location.lastIndexOf('\\')) + 1;
+        String prefix = location.substring(0, split);
+        Integer id = prefixIds.get(prefix);
+        if (id == null) {
+            id = prefixes.size();
+            prefixes.add(prefix);
+            prefixIds.put(prefix, id);
+        }
+
+        prefixOf[size] = id;
+        nameEnd[size] = append(location.substring(split));
+        titleEnd[size] = entry.title() != null ? append(entry.title()) : used;
+        durations[size] = entry.durationSeconds();
+        size++;
+    }
+
+    @Override
+    public boolean add(String location) {
+        add(new PlaylistEntry(location, null, -1));
+        return true;
+    }
+
+    /**
+     * The location (path or URL) of entry {@code index}.
+     */
+    @Override
+    public synchronized String get(int index) {
+        checkIndex(index);
+        return prefixes.get(prefixOf[index]) + string(start(index), nameEnd[index]);
+    }
+
+    /**
+     * The title given by the playlist, or null if it had none.
+     */
+    public synchronized String getTitle(int index) {
+        checkIndex(index);
+        return titleEnd[index] > nameEnd[index] ? string(nameEnd[index], titleEnd[index]) : null;
+    }
+
+    /**
+     * The duration given by the playlist in seconds, or -1 if unknown.
+     */
+    public synchronized int getDurationSeconds(int index) {
+        checkIndex(index);
+        return durations[index];
+    }
+
+    public synchronized PlaylistEntry getEntry(int index) {
+        return new PlaylistEntry(get(index), getTitle(index), getDurationSeconds(index));
+    }
+
+    @Override
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Approximate heap used by the packed data, for logging.
+     */
+    public synchronized long estimatedBytes() {
+        long prefixBytes = 0;
+        for (String p : prefixes)
+            prefixBytes += 48 + p.length();
+        return bytes.length + 16L * prefixOf.length + prefixBytes;
+    }
+
+    private int start(int index) {
+        return index == 0 ? 0 : titleEnd[index - 1];
+    }
+
+    private int append(String s) {
+        byte[] b = s.getBytes(StandardCharsets.UTF_8);
+        if (used + b.length > bytes.length)
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, used + b.length));
+        System.arraycopy(b, 0, bytes, used, b.length);
+        used += b.length;
+        return used;
+    }
+
+    private String string(int from, int to) {
+        return new String(bytes, from, to - from, StandardCharsets.UTF_8);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Index " + index + ", size " + size);
+    }
+}
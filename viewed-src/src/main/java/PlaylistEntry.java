@@ -0,0 +1,9 @@
+/**
+ * One playlist item.
+ *
+ * @param location        file path or URL
+ * @param title           display title from #EXTINF or TitleN=, or null
+ * @param durationSeconds length from the playlist, or -1 if unknown
+ */
+public record PlaylistEntry(String location, String title, int durationSeconds) {
+}
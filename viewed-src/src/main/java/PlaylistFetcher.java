@@ -0,0 +1,352 @@
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Downloads playlists over HTTP with timeouts, gzip and a revalidating disk cache.
+ * <p>
+ * A fetched playlist is stored together with its ETag / Last-Modified
+ * headers. Opening it again sends a conditional GET, and a 304 is served
+ * straight from disk. If the server can't be reached the cached copy is
+ * used. The body is written to the cache while the caller reads it, so
+ * parsing still starts with the first bytes. A body that stalls, or takes
+ * too long overall, is closed by a watchdog so the reader gets an
+ * {@link InterruptedIOException} instead of hanging.
+ */
+public class PlaylistFetcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(PlaylistFetcher.class);
+
+    private static final ScheduledExecutorService watchdog = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "playlist-watchdog");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final HttpClient client;
+    private final File cacheDir;
+    private final Duration requestTimeout;
+    private final Duration readTimeout;
+    private final Duration totalTimeout;
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong totalLatencyNanos = new AtomicLong();
+    private volatile long lastLatencyNanos;
+
+    public PlaylistFetcher() {
+        this(HttpClient.newBuilder()
+                        .connectTimeout(Duration.ofSeconds(5))
+                        .followRedirects(HttpClient.Redirect.NORMAL)
+                        .build(),
+                AppDirs.cacheDir("playlists"), Duration.ofSeconds(15), Duration.ofSeconds(15), Duration.ofMinutes(2));
+    }
+
+    /**
+     * @param requestTimeout how long to wait for the response headers
+     * @param readTimeout    how long the body may go without sending anything
+     * @param totalTimeout   how long reading the whole body may take
+     */
+    public PlaylistFetcher(HttpClient client, File cacheDir, Duration requestTimeout,
+                           Duration readTimeout, Duration totalTimeout) {
+        this.client = client;
+        this.cacheDir = cacheDir;
+        this.requestTimeout = requestTimeout;
+        this.readTimeout = readTimeout;
+        this.totalTimeout = totalTimeout;
+    }
+
+    /**
+     * Opens a playlist for reading. Non-HTTP URIs (file:, jar:) are opened directly.
+     */
+    public InputStream open(URI uri) throws IOException {
+        String scheme = uri.getScheme();
+        if (!"http".equalsIgnoreCase(scheme) && !"https".equalsIgnoreCase(scheme))
+            return uri.toURL().openStream();
+
+        requests.incrementAndGet();
+        String name = hash(uri.toString());
+        File body = new File(cacheDir, name + ".body");
+        File metaFile = new File(cacheDir, name + ".meta");
+        Properties meta = readMeta(metaFile, body);
+
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri)
+                .timeout(requestTimeout)
+                .header("Accept-Encoding", "gzip");
+        if (meta != null) {
+            if (meta.getProperty("etag") != null)
+                request.header("If-None-Match", meta.getProperty("etag"));
+            if (meta.getProperty("lastModified") != null)
+                request.header("If-Modified-Since", meta.getProperty("lastModified"));
+        }
+
+        long start = System.nanoTime();
+        HttpResponse<InputStream> response;
+        try {
+            response = client.send(request.build(), HttpResponse.BodyHandlers.ofInputStream());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while fetching " + uri);
+        } catch (IOException e) {
+            if (meta != null) {
+                logger.warn("Could not reach {}, using cached copy: {}", uri, e.toString());
+                cacheHits.incrementAndGet();
+                return new FileInputStream(body);
+            }
+            throw e;
+        } finally {
+            recordLatency(System.nanoTime() - start);
+        }
+
+        int status = response.statusCode();
+        if (status == 304 && meta != null) {
+            response.body().close();
+            cacheHits.incrementAndGet();
+            logger.info("Playlist not modified, served from cache: {} ({} ms)", uri, lastLatencyNanos / 1_000_000);
+            return new FileInputStream(body);
+        }
+        if (status != 200) {
+            response.body().close();
+            throw new IOException("HTTP " + status + " fetching " + uri);
+        }
+
+        InputStream in = new DeadlineInputStream(response.body(), uri, readTimeout, totalTimeout);
+        if ("gzip".equalsIgnoreCase(response.headers().firstValue("Content-Encoding").orElse("")))
+            in = new GZIPInputStream(in);
+        logger.info("Fetched playlist {} ({} ms to headers)", uri, lastLatencyNanos / 1_000_000);
+
+        String etag = response.headers().firstValue("ETag").orElse(null);
+        String lastModified = response.headers().firstValue("Last-Modified").orElse(null);
+        if (etag == null && lastModified == null)
+            return in; // Nothing to revalidate with, don't cache
+
+        Properties newMeta = new Properties();
+        if (etag != null)
+            newMeta.setProperty("etag", etag);
+        if (lastModified != null)
+            newMeta.setProperty("lastModified", lastModified);
+        File tmp;
+        try {
+            tmp = Files.createTempFile(cacheDir.toPath(), name, ".tmp").toFile();
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+        return new CachingInputStream(in, tmp, body, metaFile, newMeta);
+    }
+
+    public long getRequests() {
+        return requests.get();
+    }
+
+    public long getCacheHits() {
+        return cacheHits.get();
+    }
+
+    public double getHitRate() {
+        long n = requests.get();
+        return n == 0 ? 0 : (double) cacheHits.get() / n;
+    }
+
+    public long getLastLatencyNanos() {
+        return lastLatencyNanos;
+    }
+
+    public long getAverageLatencyNanos() {
+        long n = requests.get();
+        return n == 0 ? 0 : totalLatencyNanos.get() / n;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("PlaylistFetcher[requests=%d, hitRate=%.0f%%, avgLatency=%d ms]",
+                getRequests(), getHitRate() * 100, getAverageLatencyNanos() / 1_000_000);
+    }
+
+    private void recordLatency(long nanos) {
+        lastLatencyNanos = nanos;
+        totalLatencyNanos.addAndGet(nanos);
+    }
+
+    private static Properties readMeta(File metaFile, File body) {
+        if (!metaFile.isFile() || !body.isFile())
+            return null;
+        Properties meta = new Properties();
+        try (InputStream in = new FileInputStream(metaFile)) {
+            meta.load(in);
+            return meta;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static String hash(String s) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-1").digest(s.getBytes(StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder(hash.length * 2);
+            for (byte b : hash)
+                sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Closes the wrapped stream once nothing has been read for
+     * {@code readTimeout}, or the whole body has taken longer than
+     * {@code totalTimeout}. Closing the HTTP body wakes up a blocked read,
+     * which then fails with a timeout rather than "closed".
+     */
+    private static class DeadlineInputStream extends FilterInputStream {
+        private final URI uri;
+        private final long readTimeoutNanos;
+        private final long deadline;
+        private final ScheduledFuture<?> check;
+        private volatile long lastRead = System.nanoTime();
+        private volatile String expired;
+
+        DeadlineInputStream(InputStream in, URI uri, Duration readTimeout, Duration totalTimeout) {
+            super(in);
+            this.uri = uri;
+            this.readTimeoutNanos = readTimeout.toNanos();
+            this.deadline = lastRead + totalTimeout.toNanos();
+            long period = Math.max(10, Math.min(readTimeout.toMillis(), totalTimeout.toMillis()) / 4);
+            this.check = watchdog.scheduleWithFixedDelay(this::check, period, period, TimeUnit.MILLISECONDS);
+        }
+
+        private void check() {
+            long now = System.nanoTime();
+            if (now - lastRead > readTimeoutNanos)
+                expire("Read timed out after " + readTimeoutNanos / 1_000_000 + " ms");
+            else if (now - deadline > 0)
+                expire("Download took too long");
+        }
+
+        private void expire(String reason) {
+            expired = reason;
+            check.cancel(false);
+            try {
+                in.close();
+            } catch (IOException e) {
+                logger.debug("Closing stalled playlist body failed", e);
+            }
+        }
+
+        @Override
+        public int read() throws IOException {
+            try {
+                int b = in.read();
+                lastRead = System.nanoTime();
+                return b;
+            } catch (IOException e) {
+                throw timeoutOr(e);
+            }
+        }
+
+        @Override
+        public int read(byte[] buf, int off, int len) throws IOException {
+            try {
+                int n = in.read(buf, off, len);
+                lastRead = System.nanoTime();
+                return n;
+            } catch (IOException e) {
+                throw timeoutOr(e);
+            }
+        }
+
+        private IOException timeoutOr(IOException e) {
+            if (expired == null)
+                return e;
+            InterruptedIOException timeout = new InterruptedIOException(expired + " fetching " + uri);
+            timeout.initCause(e);
+            return timeout;
+        }
+
+        @Override
+        public void close() throws IOException {
+            check.cancel(false);
+            super.close();
+        }
+    }
+
+    /**
+     * Copies everything read into a temporary file of its own and commits it
+     * to the cache only if the body was read to the end.
+     */
+    private static class CachingInputStream extends FilterInputStream {
+        private final File body;
+        private final File metaFile;
+        private final Properties meta;
+        private final File tmp;
+        private OutputStream copy;
+        private boolean complete;
+
+        CachingInputStream(InputStream in, File tmp, File body, File metaFile, Properties meta) throws IOException {
+            super(in);
+            this.body = body;
+            this.metaFile = metaFile;
+            this.meta = meta;
+            this.tmp = tmp;
+            this.copy = new BufferedOutputStream(new FileOutputStream(tmp));
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b < 0)
+                complete = true;
+            else if (copy != null)
+                copy.write(b);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buf, int off, int len) throws IOException {
+            int n = super.read(buf, off, len);
+            if (n < 0)
+                complete = true;
+            else if (copy != null)
+                copy.write(buf, off, n);
+            return n;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                if (copy != null) {
+                    copy.close();
+                    copy = null;
+                    if (complete) {
+                        Files.move(tmp.toPath(), body.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                        try (OutputStream out = new FileOutputStream(metaFile)) {
+                            meta.store(out, null);
+                        }
+                    } else {
+                        tmp.delete();
+                    }
+                }
+            }
+        }
+    }
+}
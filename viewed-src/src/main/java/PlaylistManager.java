@@ -1,23 +1,26 @@
 import java.io.BufferedReader;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.net.URL;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 
 public class PlaylistManager {
 
+    // Created on first use; parsing local playlists needs neither the HTTP client nor its cache
+    private static final class Fetcher {
+        static final PlaylistFetcher INSTANCE = new PlaylistFetcher();
+    }
+
     /**
      * Parses a playlist URL and returns a list of media URLs.
      */
     public static List<String> parsePlaylist(String playlistUrl) {
         List<String> tracks = new ArrayList<>();
-        try {
-            // URI.create is safer and replaces deprecated new URL(string)
-            URL url = java.net.URI.create(playlistUrl).toURL();
-            try (InputStream is = url.openStream()) {
-                return parsePlaylist(is);
-            }
+        try (PlaylistParser parser = openPlaylist(playlistUrl)) {
+            parser.forEachRemaining(entry -> tracks.add(entry.location()));
         } catch (Exception e) {
             e.printStackTrace();
         }
@@ -30,18 +33,34 @@ public class PlaylistManager {
      */
     public static List<String> parsePlaylist(InputStream inputStream) {
         List<String> tracks = new ArrayList<>();
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                line = line.trim();
-                if (line.isEmpty() || line.startsWith("#")) {
-                    continue;
-                }
-                tracks.add(line);
-            }
+        try (PlaylistParser parser = openPlaylist(inputStream, null)) {
+            parser.forEachRemaining(entry -> tracks.add(entry.location()));
         } catch (Exception e) {
             e.printStackTrace();
         }
         return tracks;
     }
+
+    /**
+     * Opens a playlist URL for incremental reading. Entries are parsed as
+     * the content arrives; the caller must close the parser.
+     */
+    public static PlaylistParser openPlaylist(String playlistUrl) throws IOException {
+        // URI.create is safer and replaces deprecated new URL(string)
+        URI uri = URI.create(playlistUrl);
+        return openPlaylist(fetcher().open(uri), uri);
+    }
+
+    public static PlaylistFetcher fetcher() {
+        return Fetcher.INSTANCE;
+    }
+
+    /**
+     * Opens playlist content for incremental reading.
+     *
+     * @param base location of the playlist for resolving relative entries, may be null
+     */
+    public static PlaylistParser openPlaylist(InputStream inputStream, URI base) {
+        return new PlaylistParser(new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8)), base);
+    }
 }
@@ -0,0 +1,451 @@
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import java.awt.*;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.io.File;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+/**
+ * Side panel listing the current {@link Playlist}, with a search field
+ * over the playlist and the media library.
+ * <p>
+ * The list never looks at more than the rows on screen: cells have a fixed
+ * size so Swing doesn't measure every entry, the model reads straight from
+ * the packed playlist, and one shared renderer paints all rows. Entries
+ * without a title from the playlist get their tags read in the background,
+ * but only while they are visible. While a playlist is still loading, new
+ * entries are announced to the list a batch at a time; during a search only
+ * the new entries are searched and their matches appended. EDT only.
+ */
+public class PlaylistPanel extends JPanel {
+
+    private static final Logger logger = LoggerFactory.getLogger(PlaylistPanel.class);
+
+    private static final int ROW_HEIGHT = 22;
+    private static final int MAX_CACHED_TITLES = 4096;
+    private static final int VISIBLE_MARGIN = 20; // rows above and below the viewport still worth loading
+    private static final int MAX_LIBRARY_RESULTS = 200;
+
+    private final Model model = new Model();
+    private final JList<String> list = new JList<>(model);
+    private final JScrollPane scrollPane = new JScrollPane(list);
+    private final JTextField searchField = new JTextField();
+    private final Timer growth = new Timer(250, e -> model.sync());
+
+    // --- Lazy tags ---
+    private final ExecutorService tagLoader = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "playlist-tags");
+        t.setDaemon(true);
+        t.setPriority(Thread.MIN_PRIORITY);
+        return t;
+    });
+    private final AtomicLong generation = new AtomicLong();
+    private final Map<Integer, String> titles = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, String> eldest) {
+            return size() > MAX_CACHED_TITLES;
+        }
+    };
+    private final Set<Integer> requested = new HashSet<>();
+    private volatile int firstVisible;
+    private volatile int lastVisible = -1;
+
+    private Playlist playlist = new Playlist();
+    private SearchIndex searchIndex = new SearchIndex();
+    private MediaLibrary library;
+    private int currentIndex = -1;
+    private IntConsumer onPlay = index -> { };
+    private Consumer<File> onOpen = file -> { };
+
+    public PlaylistPanel() {
+        super(new BorderLayout());
+        list.setFixedCellHeight(ROW_HEIGHT);
+        list.setFixedCellWidth(240);
+        list.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        list.setCellRenderer(new Renderer());
+        list.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int row = list.locationToIndex(e.getPoint());
+                if (e.getClickCount() == 2 && row >= 0 && list.getCellBounds(row, row).contains(e.getPoint()))
+                    play(row);
+            }
+        });
+        list.getInputMap().put(KeyStroke.getKeyStroke(KeyEvent.VK_ENTER, 0), "play");
+        list.getActionMap().put("play", new AbstractAction() {
+            @Override
+            public void actionPerformed(java.awt.event.ActionEvent e) {
+                if (list.getSelectedIndex() >= 0)
+                    play(list.getSelectedIndex());
+            }
+        });
+        scrollPane.getVerticalScrollBar().setUnitIncrement(ROW_HEIGHT);
+        scrollPane.getViewport().addChangeListener(e -> updateVisibleRange());
+
+        // --- Search ---
+        searchField.setToolTipText("Search the playlist and library");
+        searchField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                model.filter(searchField.getText());
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                model.filter(searchField.getText());
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+            }
+        });
+        searchField.addActionListener(e -> {
+            if (model.getSize() > 0)
+                play(0);
+        });
+        searchField.getInputMap().put(KeyStroke.getKeyStroke(KeyEvent.VK_ESCAPE, 0), "clear");
+        searchField.getActionMap().put("clear", new AbstractAction() {
+            @Override
+            public void actionPerformed(java.awt.event.ActionEvent e) {
+                searchField.setText("");
+            }
+        });
+        searchField.getInputMap().put(KeyStroke.getKeyStroke(KeyEvent.VK_DOWN, 0), "results");
+        searchField.getActionMap().put("results", new AbstractAction() {
+            @Override
+            public void actionPerformed(java.awt.event.ActionEvent e) {
+                if (model.getSize() > 0) {
+                    list.setSelectedIndex(0);
+                    list.requestFocusInWindow();
+                }
+            }
+        });
+
+        JPanel header = new JPanel(new BorderLayout(4, 0));
+        header.add(new JLabel(" Playlist"), BorderLayout.WEST);
+        header.add(searchField, BorderLayout.CENTER);
+        add(header, BorderLayout.NORTH);
+        add(scrollPane, BorderLayout.CENTER);
+        setPreferredSize(new Dimension(280, 0));
+    }
+
+    /**
+     * Called with the playlist index when an entry is double-clicked or Enter is pressed.
+     */
+    public void setOnPlay(IntConsumer onPlay) {
+        this.onPlay = onPlay;
+    }
+
+    /**
+     * Called when a library search result is picked.
+     */
+    public void setOnOpen(Consumer<File> onOpen) {
+        this.onOpen = onOpen;
+    }
+
+    /**
+     * Library whose entries show up in search results below the playlist's.
+     */
+    public void setLibrary(MediaLibrary library) {
+        this.library = library;
+    }
+
+    /**
+     * Shows a playlist, which may still be growing on a loader thread.
+     *
+     * @param searchIndex the playlist's entries by index, filled by the same loader
+     */
+    public void setPlaylist(Playlist playlist, SearchIndex searchIndex) {
+        this.playlist = playlist;
+        this.searchIndex = searchIndex;
+        generation.incrementAndGet();
+        titles.clear();
+        requested.clear();
+        currentIndex = -1;
+        model.reset();
+        growth.start();
+    }
+
+    /**
+     * Marks the entry that is playing and scrolls to it.
+     */
+    public void setCurrentIndex(int index) {
+        currentIndex = index;
+        model.sync();
+        int row = model.rowOf(index);
+        if (row >= 0) {
+            list.ensureIndexIsVisible(row);
+            list.repaint();
+        }
+    }
+
+    /**
+     * The playlist is complete; stops polling it for new entries.
+     */
+    public void finishLoading() {
+        growth.stop();
+        model.sync();
+    }
+
+    public void focusSearch() {
+        searchField.requestFocusInWindow();
+        searchField.selectAll();
+    }
+
+    public void shutdown() {
+        growth.stop();
+        tagLoader.shutdownNow();
+    }
+
+    /**
+     * Words a playlist entry can be found by.
+     */
+    static String searchText(String location, String title) {
+        return title != null ? location + " " + title : location;
+    }
+
+    private void play(int row) {
+        int index = model.playlistIndex(row);
+        if (index >= 0)
+            onPlay.accept(index);
+        else
+            onOpen.accept(new File(model.libraryEntry(row).path()));
+    }
+
+    private void updateVisibleRange() {
+        Rectangle view = scrollPane.getViewport().getViewRect();
+        firstVisible = view.y / ROW_HEIGHT;
+        lastVisible = (view.y + view.height) / ROW_HEIGHT;
+    }
+
+    private boolean isNearlyVisible(int row) {
+        return row >= firstVisible - VISIBLE_MARGIN && row <= lastVisible + VISIBLE_MARGIN;
+    }
+
+    /**
+     * What a row shows: tags once read, else the playlist title, else the file name.
+     */
+    private String text(int index) {
+        String title = titles.get(index);
+        if (title != null)
+            return title;
+        title = playlist.getTitle(index);
+        if (title != null)
+            return title;
+        return fileName(playlist.get(index));
+    }
+
+    private static String fileName(String location) {
+        return location.substring(Math.max(location.lastIndexOf('/'), location.lastIndexOf('\\')) + 1);
+    }
+
+    /**
+     * Queues a tag read for a row being painted. Not done in the model, since
+     * type-ahead search walks every row through it.
+     */
+    private void requestTags(int row, int index) {
+        if (titles.containsKey(index) || requested.contains(index) || playlist.getTitle(index) != null)
+            return;
+        String location = playlist.get(index);
+        if (location.startsWith("http"))
+            return;
+        requested.add(index);
+        long id = generation.get();
+        SearchIndex target = searchIndex;
+        tagLoader.execute(() -> {
+            if (id != generation.get())
+                return;
+            if (!isNearlyVisible(row)) {
+                // Scrolled past; ask again if it comes back into view
+                SwingUtilities.invokeLater(() -> {
+                    if (id == generation.get())
+                        requested.remove(index);
+                });
+                return;
+            }
+            File file = new File(location);
+            String name = file.getName();
+            if (file.isFile()) {
+                try {
+                    AlbumArtLoader.MediaInfo info = AlbumArtLoader.tagsFrom(file, AlbumArtLoader.readTag(file));
+                    if (info.title != null && !info.title.isBlank())
+                        name = info.artist != null && !info.artist.isBlank() ? info.artist + " - " + info.title : info.title;
+                    // Found by its tags from now on
+                    target.put(index, searchText(location, name));
+                } catch (Exception e) {
+                    logger.debug("Could not read tags of {}", location, e);
+                }
+            }
+            String title = name;
+            SwingUtilities.invokeLater(() -> {
+                if (id != generation.get())
+                    return;
+                titles.put(index, title);
+                requested.remove(index);
+                int shown = model.rowOf(index);
+                if (shown >= 0) {
+                    Rectangle cell = list.getCellBounds(shown, shown);
+                    if (cell != null)
+                        list.repaint(cell);
+                }
+            });
+        });
+    }
+
+    // --- List model ---
+
+    /**
+     * Rows are read from the playlist on demand. The size only changes on
+     * the EDT, in one event per batch of appended entries. While searching,
+     * the rows are the matching playlist indexes followed by library entries.
+     */
+    private final class Model extends AbstractListModel<String> {
+        private int size;
+        private String query;
+        private int[] hits;
+        private List<MediaLibrary.Entry> libraryHits = List.of();
+
+        @Override
+        public int getSize() {
+            return hits == null ? size : hits.length + libraryHits.size();
+        }
+
+        @Override
+        public String getElementAt(int row) {
+            int index = playlistIndex(row);
+            if (index >= 0)
+                return text(index);
+            MediaLibrary.Entry e = libraryEntry(row);
+            if (e.title() == null || e.title().isBlank())
+                return fileName(e.path());
+            return e.artist() != null && !e.artist().isBlank() ? e.artist() + " - " + e.title() : e.title();
+        }
+
+        /**
+         * The playlist index shown in a row, or -1 for a library result.
+         */
+        int playlistIndex(int row) {
+            if (hits == null)
+                return row;
+            return row < hits.length ? hits[row] : -1;
+        }
+
+        MediaLibrary.Entry libraryEntry(int row) {
+            return libraryHits.get(row - hits.length);
+        }
+
+        /**
+         * The row showing a playlist index, or -1 if it isn't shown.
+         */
+        int rowOf(int index) {
+            if (hits == null)
+                return index >= 0 && index < size ? index : -1;
+            int row = Arrays.binarySearch(hits, index);
+            return row >= 0 ? row : -1;
+        }
+
+        void reset() {
+            int old = getSize();
+            size = 0;
+            hits = null;
+            libraryHits = List.of();
+            if (old > 0)
+                fireIntervalRemoved(this, 0, old - 1);
+            if (query != null)
+                filter(query);
+            else
+                sync();
+        }
+
+        void sync() {
+            int now = playlist.size();
+            if (now == size)
+                return;
+            int old = size;
+            size = now;
+            if (hits == null) {
+                fireIntervalAdded(this, old, now - 1);
+                return;
+            }
+            // Entries arrived while searching; only they can add matches,
+            // and those go after the playlist matches shown so far
+            int[] added = below(searchIndex.search(query, old, Integer.MAX_VALUE), now);
+            if (added.length == 0)
+                return;
+            int at = hits.length;
+            hits = Arrays.copyOf(hits, at + added.length);
+            System.arraycopy(added, 0, hits, at, added.length);
+            fireIntervalAdded(this, at, hits.length - 1);
+        }
+
+        void filter(String text) {
+            long start = System.nanoTime();
+            int old = getSize();
+            query = text;
+            size = playlist.size();
+            hits = below(searchIndex.search(text, Integer.MAX_VALUE), size);
+            libraryHits = hits != null && library != null ? library.search(text, MAX_LIBRARY_RESULTS) : List.of();
+            if (hits != null)
+                logger.debug("Search '{}': {} playlist and {} library results in {} us", text, hits.length,
+                        libraryHits.size(), (System.nanoTime() - start) / 1000);
+
+            list.clearSelection();
+            if (old > 0)
+                fireIntervalRemoved(this, 0, old - 1);
+            if (getSize() > 0)
+                fireIntervalAdded(this, 0, getSize() - 1);
+        }
+
+        /**
+         * Drops documents the loader has indexed but not yet added to the playlist.
+         */
+        private int[] below(int[] docs, int end) {
+            if (docs == null)
+                return null;
+            int n = docs.length;
+            while (n > 0 && docs[n - 1] >= end)
+                n--;
+            return n == docs.length ? docs : Arrays.copyOf(docs, n);
+        }
+    }
+
+    private final class Renderer extends DefaultListCellRenderer {
+        private final Font plain = list.getFont();
+        private final Font bold = plain.deriveFont(Font.BOLD);
+        private final Font italic = plain.deriveFont(Font.ITALIC);
+
+        @Override
+        public Component getListCellRendererComponent(JList<?> list, Object value, int row,
+                                                      boolean isSelected, boolean cellHasFocus) {
+            super.getListCellRendererComponent(list, value, row, isSelected, cellHasFocus);
+            int index = model.playlistIndex(row);
+            if (index < 0) {
+                setText("Library: " + value);
+                setFont(italic);
+                return this;
+            }
+            requestTags(row, index);
+            int seconds = playlist.getDurationSeconds(index);
+            setText(seconds > 0 ? (index + 1) + ". " + value + "  (" + TimeText.format(seconds * 1000L) + ")"
+                    : (index + 1) + ". " + value);
+            setFont(index == currentIndex ? bold : plain);
+            return this;
+        }
+    }
+}
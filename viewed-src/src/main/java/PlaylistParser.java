@@ -0,0 +1,184 @@
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads M3U, EXTM3U and PLS playlists one entry at a time.
+ * <p>
+ * Entries are produced as soon as their lines have been read, so playback
+ * can start before a large playlist has finished downloading. The format
+ * is detected from the content: a {@code [playlist]} header or
+ * {@code FileN=} lines mean PLS, anything else is treated as M3U.
+ * <p>
+ * PLS entries are emitted when the next index starts, which matches the
+ * usual File/Title/Length grouping; a Title or Length that appears after
+ * its entry was emitted is ignored.
+ */
+public class PlaylistParser implements Iterator<PlaylistEntry>, Closeable {
+
+    private final BufferedReader reader;
+    private final URI base;
+    private final PlayerEvents.PlaylistParse event = new PlayerEvents.PlaylistParse();
+    private int entries;
+    private boolean closed;
+    private PlaylistEntry next;
+    private boolean done;
+
+    // M3U state
+    private String extTitle;
+    private int extDuration = -1;
+
+    // PLS state
+    private Boolean pls;
+    private int plsIndex = -1;
+    private String plsFile;
+    private String plsTitle;
+    private int plsLength = -1;
+
+    /**
+     * @param base where the playlist came from, used to resolve relative entries; may be null
+     */
+    public PlaylistParser(BufferedReader reader, URI base) {
+        this.reader = reader;
+        this.base = base;
+        event.begin();
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null && !done) {
+            try {
+                next = readEntry();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            done = next == null;
+        }
+        return next != null;
+    }
+
+    @Override
+    public PlaylistEntry next() {
+        if (!hasNext())
+            throw new NoSuchElementException();
+        PlaylistEntry entry = next;
+        next = null;
+        entries++;
+        return entry;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+        if (!closed && event.shouldCommit()) {
+            event.source = base != null ? base.toString() : "stream";
+            event.entries = entries;
+            event.commit();
+        }
+        closed = true;
+    }
+
+    private PlaylistEntry readEntry() throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            line = line.trim();
+            if (line.isEmpty())
+                continue;
+            if (pls == null)
+                pls = line.equalsIgnoreCase("[playlist]") || line.regionMatches(true, 0, "File", 0, 4) && line.indexOf('=') > 4;
+
+            PlaylistEntry entry = pls ? plsLine(line) : m3uLine(line);
+            if (entry != null)
+                return entry;
+        }
+        return pls != null && pls ? flushPls() : null;
+    }
+
+    private PlaylistEntry m3uLine(String line) {
+        if (line.startsWith("#")) {
+            if (line.regionMatches(true, 0, "#EXTINF:", 0, 8)) {
+                int comma = line.indexOf(',', 8);
+                String info = comma >= 0 ? line.substring(8, comma) : line.substring(8);
+                // "#EXTINF:123 tvg-id=...,Title" - only the leading number is the duration
+                int space = info.indexOf(' ');
+                extDuration = parseInt(space >= 0 ? info.substring(0, space) : info);
+                extTitle = comma >= 0 ? emptyToNull(line.substring(comma + 1).trim()) : null;
+            }
+            return null;
+        }
+        PlaylistEntry entry = new PlaylistEntry(resolve(line), extTitle, extDuration);
+        extTitle = null;
+        extDuration = -1;
+        return entry;
+    }
+
+    private PlaylistEntry plsLine(String line) {
+        int eq = line.indexOf('=');
+        if (line.startsWith("[") || line.startsWith(";") || eq < 0)
+            return null;
+        String key = line.substring(0, eq).trim().toLowerCase(Locale.ROOT);
+        String value = line.substring(eq + 1).trim();
+
+        String field;
+        if (key.startsWith("file"))
+            field = "file";
+        else if (key.startsWith("title"))
+            field = "title";
+        else if (key.startsWith("length"))
+            field = "length";
+        else
+            return null; // NumberOfEntries, Version, ...
+
+        int index = parseInt(key.substring(field.length()));
+        PlaylistEntry entry = null;
+        if (index != plsIndex) {
+            entry = flushPls();
+            plsIndex = index;
+        }
+        switch (field) {
+            case "file" -> plsFile = value;
+            case "title" -> plsTitle = emptyToNull(value);
+            default -> plsLength = parseInt(value);
+        }
+        return entry;
+    }
+
+    private PlaylistEntry flushPls() {
+        PlaylistEntry entry = plsFile != null && !plsFile.isEmpty()
+                ? new PlaylistEntry(resolve(plsFile), plsTitle, plsLength)
+                : null;
+        plsFile = null;
+        plsTitle = null;
+        plsLength = -1;
+        return entry;
+    }
+
+    private String resolve(String location) {
+        if (base == null || new File(location).isAbsolute() || location.contains("://"))
+            return location;
+        try {
+            URI resolved = base.resolve(location.replace('\\', '/'));
+            return "file".equals(resolved.getScheme()) ? new File(resolved).getPath() : resolved.toString();
+        } catch (IllegalArgumentException e) {
+            return location;
+        }
+    }
+
+    private static int parseInt(String s) {
+        try {
+            return (int) Math.round(Double.parseDouble(s.trim()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static String emptyToNull(String s) {
+        return s == null || s.isEmpty() ? null : s;
+    }
+}
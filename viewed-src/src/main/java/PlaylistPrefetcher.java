@@ -0,0 +1,125 @@
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Loads metadata and artwork for the next few playlist tracks while the
+ * current one plays, so the album art panel can be filled the moment a
+ * track starts.
+ * <p>
+ * Work runs on a single low-priority thread. Jumping to another index
+ * cancels everything queued for the old position. Prefetched results are
+ * kept within a byte budget, counting artwork pixels; the oldest are
+ * dropped first.
+ */
+public class PlaylistPrefetcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(PlaylistPrefetcher.class);
+
+    private final int lookahead;
+    private final long memoryBudget;
+    private final ThreadPoolExecutor executor;
+    private final AtomicLong generation = new AtomicLong();
+    private final List<Future<?>> pending = new ArrayList<>();
+    private final LinkedHashMap<String, AlbumArtLoader.MediaInfo> ready = new LinkedHashMap<>();
+    private long readyBytes;
+
+    /**
+     * @param lookahead    how many tracks after the current one to prepare
+     * @param memoryBudget upper bound for the prepared artwork, in bytes
+     */
+    public PlaylistPrefetcher(int lookahead, long memoryBudget) {
+        this.lookahead = lookahead;
+        this.memoryBudget = memoryBudget;
+        executor = new ThreadPoolExecutor(1, 1, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, lookahead)), r -> {
+                    Thread t = new Thread(r, "playlist-prefetch");
+                    t.setDaemon(true);
+                    t.setPriority(Thread.MIN_PRIORITY);
+                    return t;
+                }, new ThreadPoolExecutor.DiscardOldestPolicy());
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Starts preparing the tracks after {@code currentIndex}, dropping any
+     * work queued for a previous position. Streams are skipped.
+     */
+    public synchronized void prefetch(Playlist playlist, int currentIndex) {
+        cancel();
+        long id = generation.get();
+        int end = Math.min(playlist.size(), currentIndex + 1 + lookahead);
+        for (int i = currentIndex + 1; i < end; i++) {
+            String location = playlist.get(i);
+            if (location.startsWith("http") || ready.containsKey(location))
+                continue;
+            File file = new File(location);
+            pending.add(executor.submit(() -> load(id, file)));
+        }
+    }
+
+    /**
+     * Removes and returns the prepared info for a file, or null if it isn't ready.
+     */
+    public synchronized AlbumArtLoader.MediaInfo take(File file) {
+        AlbumArtLoader.MediaInfo info = ready.remove(file.getPath());
+        if (info != null)
+            readyBytes -= sizeOf(info);
+        return info;
+    }
+
+    public synchronized void cancel() {
+        generation.incrementAndGet();
+        for (Future<?> f : pending)
+            f.cancel(true);
+        pending.clear();
+    }
+
+    public void shutdown() {
+        cancel();
+        executor.shutdownNow();
+    }
+
+    private void load(long id, File file) {
+        if (id != generation.get() || !file.isFile())
+            return;
+        AlbumArtLoader.MediaInfo info = AlbumArtLoader.loadMediaInfo(file);
+        synchronized (this) {
+            if (id != generation.get())
+                return;
+            long size = sizeOf(info);
+            if (size > memoryBudget)
+                info = info.withArtwork(null); // Text only, the artwork cache still has the cover
+            AlbumArtLoader.MediaInfo old = ready.put(file.getPath(), info);
+            if (old != null)
+                readyBytes -= sizeOf(old);
+            readyBytes += sizeOf(info);
+
+            Iterator<Map.Entry<String, AlbumArtLoader.MediaInfo>> it = ready.entrySet().iterator();
+            while (readyBytes > memoryBudget && it.hasNext()) {
+                Map.Entry<String, AlbumArtLoader.MediaInfo> eldest = it.next();
+                if (eldest.getKey().equals(file.getPath()))
+                    continue;
+                readyBytes -= sizeOf(eldest.getValue());
+                it.remove();
+            }
+        }
+        logger.debug("Prefetched {}", file.getName());
+    }
+
+    private static long sizeOf(AlbumArtLoader.MediaInfo info) {
+        if (info.artwork instanceof ArtworkIcon icon)
+            return 256 + (long) icon.getBufferedImage().getWidth() * icon.getBufferedImage().getHeight() * 4;
+        if (info.artwork != null)
+            return 256 + (long) info.artwork.getIconWidth() * info.artwork.getIconHeight() * 4;
+        return 256;
+    }
+}
@@ -0,0 +1,173 @@
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.swing.*;
+import java.awt.event.HierarchyEvent;
+import java.awt.event.HierarchyListener;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One frame clock for every animated Swing component.
+ * <p>
+ * A single daemon thread ticks at the target FPS and posts one frame to the
+ * EDT, which paints every registered component that is currently showing.
+ * If the previous frame hasn't run yet the EDT is backlogged and the tick is
+ * dropped instead of queueing more work. The clock only runs while at least
+ * one registered component is showing: each one gets a hierarchy listener,
+ * so hiding, minimizing or swapping it out stops the ticks and showing it
+ * again restarts them.
+ */
+public class RenderScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(RenderScheduler.class);
+    private static final RenderScheduler INSTANCE = new RenderScheduler(30);
+
+    private final CopyOnWriteArrayList<JComponent> components = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean framePending = new AtomicBoolean();
+    private final Runnable frame = this::renderFrame;
+    private final HierarchyListener showingListener = e -> {
+        if ((e.getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) != 0)
+            updateClock();
+    };
+    private final ScheduledExecutorService clock;
+    private ScheduledFuture<?> ticks;
+    private int targetFps;
+
+    private final AtomicLong frames = new AtomicLong();
+    private final AtomicLong droppedFrames = new AtomicLong();
+    private final AtomicLong totalRenderNanos = new AtomicLong();
+    private volatile long lastRenderNanos;
+
+    public static RenderScheduler get() {
+        return INSTANCE;
+    }
+
+    public RenderScheduler(int targetFps) {
+        this.targetFps = targetFps;
+        clock = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "render-clock");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    // Listeners are added outside our lock: that takes the AWT tree lock,
+    // which hierarchy events already hold when they call updateClock()
+    public void register(JComponent component) {
+        if (components.addIfAbsent(component))
+            component.addHierarchyListener(showingListener);
+        updateClock();
+    }
+
+    public void unregister(JComponent component) {
+        if (components.remove(component))
+            component.removeHierarchyListener(showingListener);
+        updateClock();
+    }
+
+    /**
+     * True while the clock is ticking.
+     */
+    public synchronized boolean isRunning() {
+        return ticks != null;
+    }
+
+    public synchronized void setTargetFps(int fps) {
+        targetFps = Math.max(1, fps);
+        if (ticks != null) {
+            ticks.cancel(false);
+            start();
+        }
+    }
+
+    public synchronized int getTargetFps() {
+        return targetFps;
+    }
+
+    public void shutdown() {
+        for (JComponent c : components)
+            c.removeHierarchyListener(showingListener);
+        components.clear();
+        synchronized (this) {
+            clock.shutdownNow();
+            ticks = null;
+        }
+        logger.info("Render scheduler stopped: {} frames, {} dropped, avg {} us",
+                getFrames(), getDroppedFrames(), getAverageRenderNanos() / 1000);
+    }
+
+    /**
+     * Runs the clock if any registered component is showing, stops it otherwise.
+     */
+    private synchronized void updateClock() {
+        boolean showing = false;
+        for (JComponent c : components)
+            showing |= c.isShowing();
+        if (showing && ticks == null && !clock.isShutdown()) {
+            start();
+        } else if (!showing && ticks != null) {
+            ticks.cancel(false);
+            ticks = null;
+        }
+    }
+
+    private void start() {
+        long period = TimeUnit.SECONDS.toNanos(1) / targetFps;
+        ticks = clock.scheduleAtFixedRate(this::tick, period, period, TimeUnit.NANOSECONDS);
+    }
+
+    // Clock thread
+    private void tick() {
+        if (!framePending.compareAndSet(false, true)) {
+            droppedFrames.incrementAndGet();
+            return;
+        }
+        SwingUtilities.invokeLater(frame);
+    }
+
+    // EDT
+    private void renderFrame() {
+        try {
+            long start = System.nanoTime();
+            boolean painted = false;
+            for (JComponent c : components) {
+                if (c.isShowing()) {
+                    c.paintImmediately(0, 0, c.getWidth(), c.getHeight());
+                    painted = true;
+                }
+            }
+            if (painted) {
+                long elapsed = System.nanoTime() - start;
+                lastRenderNanos = elapsed;
+                totalRenderNanos.addAndGet(elapsed);
+                Metrics.record(Metrics.RENDER_FRAME, elapsed);
+                frames.incrementAndGet();
+            }
+        } finally {
+            framePending.set(false);
+        }
+    }
+
+    public long getFrames() {
+        return frames.get();
+    }
+
+    public long getDroppedFrames() {
+        return droppedFrames.get();
+    }
+
+    public long getLastRenderNanos() {
+        return lastRenderNanos;
+    }
+
+    public long getAverageRenderNanos() {
+        long n = frames.get();
+        return n == 0 ? 0 : totalRenderNanos.get() / n;
+    }
+}
@@ -0,0 +1,310 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * In-memory inverted index from words to document numbers.
+ * <p>
+ * Text is split into lower-case words at anything that isn't a letter or
+ * digit. Each word keeps a sorted {@code int[]} of the documents containing
+ * it, and each document keeps the ids of its words in one shared
+ * {@code int[]} so it can be taken out of exactly the lists it is in when
+ * its text changes. Words whose lists have emptied are dropped, and the
+ * rest renumbered, when the index compacts. Documents are small
+ * non-negative ints chosen by the caller, such as a playlist index.
+ * <p>
+ * Every query word is a prefix and all of them must match: "beat rev"
+ * finds "The Beatles - Revolution". Thread-safe; a loader can add while
+ * the UI searches.
+ */
+public class SearchIndex {
+
+    private final Map<String, Postings> words = new HashMap<>();
+    private final TreeMap<String, Postings> sorted = new TreeMap<>();
+    private Postings[] byId = new Postings[64];
+    private int wordCount;
+    private int emptyWords;
+
+    // Per document: its word ids are wordIds[docStart[doc] .. docStart[doc] + docLength[doc]]
+    private int[] docStart = new int[16];
+    private int[] docLength = new int[16];
+    private int[] wordIds = new int[256];
+    private int usedIds;
+    private int garbageIds;
+    private int maxDoc = -1;
+    private int docCount;
+
+    private int[] scratch = new int[32];
+    private int scratchSize;
+
+    /**
+     * Indexes a document, replacing what was indexed for it before.
+     */
+    public synchronized void put(int doc, String text) {
+        if (doc < 0)
+            throw new IllegalArgumentException("Negative document " + doc);
+        remove(doc);
+        if (doc >= docStart.length) {
+            int capacity = Math.max(docStart.length * 2, doc + 1);
+            docStart = Arrays.copyOf(docStart, capacity);
+            docLength = Arrays.copyOf(docLength, capacity);
+        }
+
+        int n = tokenize(text);
+        // The same word twice in one document is only listed once
+        Arrays.sort(scratch, 0, n);
+        int unique = 0;
+        for (int i = 0; i < n; i++) {
+            if (unique == 0 || scratch[i] != scratch[unique - 1])
+                scratch[unique++] = scratch[i];
+        }
+
+        if (usedIds + unique > wordIds.length)
+            wordIds = Arrays.copyOf(wordIds, Math.max(wordIds.length * 2, usedIds + unique));
+        docStart[doc] = usedIds;
+        docLength[doc] = unique;
+        for (int i = 0; i < unique; i++) {
+            Postings p = byId[scratch[i]];
+            if (p.size == 0)
+                emptyWords--;
+            wordIds[usedIds++] = scratch[i];
+            p.add(doc);
+        }
+        maxDoc = Math.max(maxDoc, doc);
+        if (unique > 0)
+            docCount++;
+    }
+
+    public synchronized void remove(int doc) {
+        if (doc >= docStart.length || docLength[doc] == 0)
+            return;
+        int start = docStart[doc];
+        for (int i = start; i < start + docLength[doc]; i++) {
+            Postings p = byId[wordIds[i]];
+            p.remove(doc);
+            if (p.size == 0)
+                emptyWords++;
+        }
+        garbageIds += docLength[doc];
+        docLength[doc] = 0;
+        docCount--;
+        if ((garbageIds > usedIds / 2 && garbageIds > 4096) || (emptyWords > wordCount / 4 && emptyWords > 1024))
+            compact();
+    }
+
+    /**
+     * Documents containing a word starting with each word of the query, in
+     * ascending order. An empty array if nothing matches; null if the query
+     * has no words at all.
+     *
+     * @param limit stop after this many documents
+     */
+    public int[] search(String query, int limit) {
+        return search(query, 0, limit);
+    }
+
+    /**
+     * Like {@link #search(String, int)}, but only documents from
+     * {@code fromDoc} on, such as the entries a growing playlist just added.
+     */
+    public synchronized int[] search(String query, int fromDoc, int limit) {
+        List<String> terms = new ArrayList<>();
+        forEachWord(query, terms::add);
+        long[] matches = null;
+        for (String term : terms) {
+            // Bit i stands for document fromDoc + i
+            long[] bits = new long[(Math.max(0, maxDoc - fromDoc) >> 6) + 1];
+            // Every word in [term, term + U+FFFF) starts with term
+            SortedMap<String, Postings> range = sorted.subMap(term, term + Character.MAX_VALUE);
+            for (Postings p : range.values())
+                p.setBits(bits, fromDoc);
+            if (matches == null) {
+                matches = bits;
+            } else {
+                for (int i = 0; i < matches.length; i++)
+                    matches[i] &= bits[i];
+            }
+        }
+        if (matches == null)
+            return null;
+
+        int[] result = new int[16];
+        int count = 0;
+        for (int i = 0; i < matches.length && count < limit; i++) {
+            long word = matches[i];
+            while (word != 0 && count < limit) {
+                if (count == result.length)
+                    result = Arrays.copyOf(result, count * 2);
+                result[count++] = fromDoc + (i << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    public synchronized int size() {
+        return docCount;
+    }
+
+    public synchronized int wordCount() {
+        return words.size();
+    }
+
+    /**
+     * Approximate heap used by the index, for logging.
+     */
+    public synchronized long estimatedBytes() {
+        long bytes = 8L * docStart.length + 4L * wordIds.length + 8L * byId.length;
+        for (Map.Entry<String, Postings> e : words.entrySet()) {
+            // The word itself, its entries in both maps and the posting list
+            bytes += 40 + e.getKey().length() + 2 * 40 + 32 + 4L * e.getValue().docs.length;
+        }
+        return bytes;
+    }
+
+    /**
+     * Puts the ids of the words in {@code text} into {@code scratch}.
+     *
+     * @return the number of ids
+     */
+    private int tokenize(String text) {
+        scratchSize = 0;
+        forEachWord(text, word -> {
+            if (scratchSize == scratch.length)
+                scratch = Arrays.copyOf(scratch, scratchSize * 2);
+            scratch[scratchSize++] = wordId(word);
+        });
+        return scratchSize;
+    }
+
+    /**
+     * Splits text into lower-case words at anything that isn't a letter or digit.
+     */
+    static void forEachWord(String text, Consumer<String> sink) {
+        if (text == null)
+            return;
+        StringBuilder word = new StringBuilder();
+        for (int i = 0, length = text.length(); i <= length; i++) {
+            char c = i < length ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                word.append(Character.toLowerCase(c));
+            } else if (word.length() > 0) {
+                sink.accept(word.toString());
+                word.setLength(0);
+            }
+        }
+    }
+
+    private int wordId(String word) {
+        Postings p = words.get(word);
+        if (p == null) {
+            p = new Postings(wordCount);
+            emptyWords++; // Until put() adds its document
+            words.put(word, p);
+            sorted.put(word, p);
+            if (wordCount == byId.length)
+                byId = Arrays.copyOf(byId, wordCount * 2);
+            byId[wordCount++] = p;
+        }
+        return p.id;
+    }
+
+    /**
+     * Drops the word ids of replaced and removed documents, then the words
+     * no document contains any more.
+     */
+    private void compact() {
+        int[] packed = new int[Math.max(256, usedIds - garbageIds)];
+        int used = 0;
+        for (int doc = 0; doc <= maxDoc && doc < docStart.length; doc++) {
+            int length = docLength[doc];
+            if (length == 0)
+                continue;
+            System.arraycopy(wordIds, docStart[doc], packed, used, length);
+            docStart[doc] = used;
+            used += length;
+        }
+        wordIds = packed;
+        usedIds = used;
+        garbageIds = 0;
+        if (emptyWords > 0)
+            dropEmptyWords();
+    }
+
+    private void dropEmptyWords() {
+        int[] newIds = new int[wordCount];
+        int next = 0;
+        for (int id = 0; id < wordCount; id++) {
+            Postings p = byId[id];
+            if (p.size > 0) {
+                p.id = next;
+                byId[next] = p;
+                newIds[id] = next++;
+            }
+        }
+        Arrays.fill(byId, next, wordCount, null);
+        wordCount = next;
+        words.values().removeIf(p -> p.size == 0);
+        sorted.values().removeIf(p -> p.size == 0);
+        // Only live documents are left after packing, and none of them uses a dropped word
+        for (int i = 0; i < usedIds; i++)
+            wordIds[i] = newIds[wordIds[i]];
+        emptyWords = 0;
+    }
+
+    // --- Posting lists ---
+
+    /**
+     * The documents containing one word, sorted so that appending the next
+     * document of a growing playlist is the common, cheap case.
+     */
+    private static final class Postings {
+        int id;
+        int[] docs = new int[2];
+        int size;
+
+        Postings(int id) {
+            this.id = id;
+        }
+
+        void add(int doc) {
+            if (size > 0 && docs[size - 1] >= doc) {
+                int at = Arrays.binarySearch(docs, 0, size, doc);
+                if (at >= 0)
+                    return;
+                insert(-at - 1, doc);
+                return;
+            }
+            insert(size, doc);
+        }
+
+        void remove(int doc) {
+            int at = Arrays.binarySearch(docs, 0, size, doc);
+            if (at < 0)
+                return;
+            System.arraycopy(docs, at + 1, docs, at, size - at - 1);
+            size--;
+        }
+
+        void setBits(long[] bits, int fromDoc) {
+            int i = Arrays.binarySearch(docs, 0, size, fromDoc);
+            for (i = i < 0 ? -i - 1 : i; i < size; i++) {
+                int bit = docs[i] - fromDoc;
+                bits[bit >> 6] |= 1L << bit;
+            }
+        }
+
+        private void insert(int at, int doc) {
+            if (size == docs.length)
+                docs = Arrays.copyOf(docs, size * 2);
+            System.arraycopy(docs, at, docs, at + 1, size - at);
+            docs[at] = doc;
+            size++;
+        }
+    }
+}
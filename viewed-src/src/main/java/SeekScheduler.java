@@ -0,0 +1,129 @@
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
+import javafx.scene.media.MediaPlayer;
+import javafx.util.Duration;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latest-wins seeking for the seek bar.
+ * <p>
+ * Dragging produces a target for every pixel, and handing each one to the
+ * player makes it work through a long queue of stale seeks. Here requests
+ * only overwrite a single pending target. One seek is in flight at a time;
+ * when playback reports a position near its target (or a timeout passes)
+ * it is considered settled and the newest pending target, if any, is
+ * issued next. Seek-to-settle time goes to {@link Metrics} and JFR.
+ * <p>
+ * Ticks that still describe where playback was when the seek was issued
+ * don't count: a position only settles a seek once it has left the
+ * neighbourhood of that starting point, or jumped further than playback
+ * moves between two ticks. Otherwise a short seek would settle on the
+ * very next tick, before the player has actually moved.
+ */
+public class SeekScheduler {
+
+    private static final long SETTLE_TOLERANCE_MS = 250;
+    // More than playback advances between two position ticks
+    private static final long MAX_TICK_ADVANCE_MS = 250;
+    private static final Duration SETTLE_TIMEOUT = Duration.millis(750);
+
+    private final AtomicLong pending = new AtomicLong(-1);
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+    private volatile boolean busy;
+
+    // FX thread
+    private MediaPlayer player;
+    private PlayerEvents.Seek inFlight;
+    private long inFlightStart;
+    private long origin;       // Position when the seek was issued
+    private long lastPosition;
+    private boolean departed;  // Seen a position that can't be from before the seek
+    private PauseTransition timeout;
+
+    /**
+     * Follows a new player, dropping anything pending for the old one. FX thread.
+     */
+    public void attach(MediaPlayer newPlayer) {
+        pending.set(-1);
+        if (inFlight != null)
+            settle(false);
+        player = newPlayer;
+    }
+
+    /**
+     * Asks for a seek. Any thread; replaces a target that hasn't been issued yet.
+     */
+    public void request(long targetMillis) {
+        pending.set(Math.max(0, targetMillis));
+        busy = true;
+        if (drainScheduled.compareAndSet(false, true))
+            FxToolkit.runLater(this::drain);
+    }
+
+    /**
+     * True while a seek is pending or hasn't settled, so position updates
+     * shouldn't move the seek bar thumb.
+     */
+    public boolean isBusy() {
+        return busy;
+    }
+
+    /**
+     * Feed every playback position here. FX thread.
+     */
+    public void positionChanged(Duration position) {
+        if (inFlight == null || position == null || position.isUnknown())
+            return;
+        long now = (long) position.toMillis();
+        long advance = now - lastPosition;
+        lastPosition = now;
+        if (!departed)
+            departed = Math.abs(now - origin) > SETTLE_TOLERANCE_MS || advance < 0 || advance > MAX_TICK_ADVANCE_MS;
+        if (departed && Math.abs(now - inFlight.targetMillis) <= SETTLE_TOLERANCE_MS)
+            settle(true);
+    }
+
+    // FX thread
+    private void drain() {
+        drainScheduled.set(false);
+        if (inFlight != null)
+            return; // Issued once the current one settles
+        long target = pending.getAndSet(-1);
+        if (target < 0 || player == null || player.getStatus() == MediaPlayer.Status.DISPOSED) {
+            busy = pending.get() >= 0;
+            return;
+        }
+
+        inFlight = new PlayerEvents.Seek();
+        inFlight.targetMillis = target;
+        inFlight.begin();
+        inFlightStart = System.nanoTime();
+        Duration current = player.getCurrentTime();
+        origin = current == null || current.isUnknown() ? 0 : (long) current.toMillis();
+        lastPosition = origin;
+        departed = false;
+        player.seek(Duration.millis(target));
+
+        if (timeout == null) {
+            timeout = new PauseTransition(SETTLE_TIMEOUT);
+            timeout.setOnFinished(e -> {
+                if (inFlight != null)
+                    settle(false);
+            });
+        }
+        timeout.playFromStart();
+    }
+
+    // FX thread
+    private void settle(boolean settled) {
+        if (timeout != null)
+            timeout.stop();
+        Metrics.record(Metrics.SEEK_SETTLE, System.nanoTime() - inFlightStart);
+        inFlight.settled = settled;
+        inFlight.commit();
+        inFlight = null;
+        drain();
+    }
+}
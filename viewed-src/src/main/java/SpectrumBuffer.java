@@ -0,0 +1,51 @@
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands spectrum frames from the media thread to the painter without locks
+ * or allocation.
+ * <p>
+ * Three preallocated arrays rotate between writer, reader and a shared
+ * middle slot. The writer fills its own array and swaps it into the middle;
+ * the reader swaps the middle out when a fresh frame is there. Neither side
+ * ever touches an array the other one is using, and only the latest frame
+ * is kept if the painter falls behind.
+ */
+public class SpectrumBuffer {
+
+    private static final int FRESH = 4;
+
+    private final float[][] buffers;
+    private final AtomicInteger middle = new AtomicInteger(1);
+    private int back = 0;  // owned by the writer
+    private int front = 2; // owned by the reader
+
+    public SpectrumBuffer(int size) {
+        buffers = new float[3][size];
+    }
+
+    public int size() {
+        return buffers[0].length;
+    }
+
+    /**
+     * Writer side. Copies up to {@link #size()} values and publishes them.
+     */
+    public void publish(float[] values) {
+        System.arraycopy(values, 0, buffers[back], 0, Math.min(values.length, buffers[back].length));
+        back = middle.getAndSet(back | FRESH) & 3;
+    }
+
+    /**
+     * Reader side. Copies the latest frame into {@code target} if there is
+     * one newer than the last read.
+     *
+     * @return false if nothing new was published since the last call
+     */
+    public boolean read(float[] target) {
+        if ((middle.get() & FRESH) == 0)
+            return false;
+        front = middle.getAndSet(front) & 3;
+        System.arraycopy(buffers[front], 0, target, 0, Math.min(target.length, buffers[front].length));
+        return true;
+    }
+}
@@ -0,0 +1,78 @@
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records named startup phases so time-to-window can be tracked.
+ * <p>
+ * Each phase is recorded once, the first time it is marked. With
+ * {@code --startup-report} the breakdown is printed as soon as the window
+ * is visible and the FX toolkit is up, and the first media open is
+ * reported when it happens.
+ */
+public class StartupTimeline {
+
+    public static final String MAIN = "main";
+    public static final String EDT = "EDT";
+    public static final String FRAME_VISIBLE = "frame visible";
+    public static final String FX_READY = "FX toolkit ready";
+    public static final String FIRST_MEDIA = "first media open";
+
+    private record Phase(String name, long nanos, String thread) {
+    }
+
+    private static final long BASE_NANOS = System.nanoTime();
+    private static final long BASE_MILLIS = System.currentTimeMillis();
+    private static final List<Phase> phases = new ArrayList<>();
+    private static boolean reportEnabled;
+    private static boolean reported;
+
+    public static synchronized void enableReport() {
+        reportEnabled = true;
+    }
+
+    public static synchronized void mark(String name) {
+        for (Phase p : phases) {
+            if (p.name.equals(name))
+                return;
+        }
+        Phase phase = new Phase(name, System.nanoTime(), Thread.currentThread().getName());
+        phases.add(phase);
+
+        if (!reportEnabled)
+            return;
+        if (reported) {
+            System.out.println(line(phase, jvmStartNanos()));
+        } else if (has(FRAME_VISIBLE) && has(FX_READY)) {
+            reported = true;
+            System.out.println(report());
+        }
+    }
+
+    public static synchronized String report() {
+        long jvmStart = jvmStartNanos();
+        StringBuilder sb = new StringBuilder("Startup timeline (ms since JVM start):\n");
+        sb.append(String.format("  %8.1f  JVM start%n", 0.0));
+        for (Phase p : phases)
+            sb.append(line(p, jvmStart)).append('\n');
+        return sb.toString().stripTrailing();
+    }
+
+    private static boolean has(String name) {
+        for (Phase p : phases) {
+            if (p.name.equals(name))
+                return true;
+        }
+        return false;
+    }
+
+    private static String line(Phase p, long jvmStart) {
+        return String.format("  %8.1f  %-18s [%s]", (p.nanos - jvmStart) / 1e6, p.name, p.thread);
+    }
+
+    // JVM start in System.nanoTime() terms, only millisecond accurate
+    private static long jvmStartNanos() {
+        long startMillis = ManagementFactory.getRuntimeMXBean().getStartTime();
+        return BASE_NANOS - (BASE_MILLIS - startMillis) * 1_000_000;
+    }
+}
@@ -1,5 +1,12 @@
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.application.Platform;
 import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.layout.StackPane;
 import javafx.scene.layout.VBox;
+import javafx.scene.media.MediaPlayer;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
@@ -7,33 +14,118 @@ import javafx.scene.text.Text;
 import javafx.scene.layout.Background;
 import javafx.scene.layout.BackgroundFill;
 import javafx.scene.layout.CornerRadii;
+import javafx.util.Duration;
 
+import javax.swing.*;
+
+/**
+ * Live performance HUD shown over the video. Refreshes twice a second while
+ * visible, reading from {@link Metrics} and the current player; hidden it
+ * does no work at all.
+ */
 public class StatsOverlay extends VBox {
     private final Text codecText = new Text("Codec: unknown");
     private final Text resolutionText = new Text("Resolution: unknown");
     private final Text decoderText = new Text("Decoder: unknown");
+    private final Text statusText = new Text();
+    private final Text bufferText = new Text();
+    private final Text latencyText = new Text();
+    private final Text heapText = new Text();
+    private final Text renderText = new Text();
+    private final Text openText = new Text();
+
+    private final Timeline refresh = new Timeline(new KeyFrame(Duration.millis(500), e -> refresh()));
+    private MediaPlayer mediaPlayer;
 
     public StatsOverlay() {
         setPadding(new Insets(10));
         setSpacing(5);
         setBackground(new Background(new BackgroundFill(Color.rgb(0,0,0, 0.5), new CornerRadii(8), Insets.EMPTY)));
+        setMaxSize(USE_PREF_SIZE, USE_PREF_SIZE);
+        setMouseTransparent(true);
+        StackPane.setAlignment(this, Pos.TOP_LEFT);
+        StackPane.setMargin(this, new Insets(10));
 
-        codecText.setFill(Color.WHITE);
-        resolutionText.setFill(Color.WHITE);
-        decoderText.setFill(Color.WHITE);
-        codecText.setFont(Font.font("Monospaced", FontWeight.BOLD, 14));
-        resolutionText.setFont(Font.font("Monospaced", FontWeight.BOLD, 14));
-        decoderText.setFont(Font.font("Monospaced", FontWeight.BOLD, 14));
-
-        getChildren().addAll(codecText, resolutionText, decoderText);
+        Font font = Font.font("Monospaced", FontWeight.BOLD, 14);
+        for (Text text : new Text[]{codecText, resolutionText, decoderText, statusText, bufferText,
+                latencyText, heapText, renderText, openText}) {
+            text.setFill(Color.WHITE);
+            text.setFont(font);
+            getChildren().add(text);
+        }
         setVisible(false);
 
-
+        refresh.setCycleCount(Animation.INDEFINITE);
+        visibleProperty().addListener((obs, was, now) -> {
+            if (now) {
+                refresh();
+                refresh.play();
+            } else {
+                refresh.stop();
+            }
+        });
     }
 
     public void update(String codec, String resolution, String decoder) {
-        codecText.setText("Codect: " + codec);
+        codecText.setText("Codec: " + codec);
         resolutionText.setText("Resolution: " + resolution);
         decoderText.setText("Decoder: " + decoder);
     }
+
+    public void setMediaPlayer(MediaPlayer mediaPlayer) {
+        this.mediaPlayer = mediaPlayer;
+    }
+
+    public void toggle() {
+        setVisible(!isVisible());
+    }
+
+    // FX thread
+    private void refresh() {
+        MediaPlayer player = mediaPlayer;
+        if (player != null && player.getStatus() != MediaPlayer.Status.DISPOSED) {
+            statusText.setText(String.format("Status: %s  Rate: %.2fx", player.getStatus(), player.getCurrentRate()));
+            Duration total = player.getTotalDuration();
+            Duration buffered = player.getBufferProgressTime();
+            if (total != null && buffered != null && !total.isUnknown() && !total.isIndefinite() && total.toMillis() > 0)
+                bufferText.setText(String.format("Buffer: %.0f%% (%.1fs)", buffered.toMillis() / total.toMillis() * 100,
+                        buffered.toSeconds()));
+            else
+                bufferText.setText("Buffer: n/a");
+        } else {
+            statusText.setText("Status: no media");
+            bufferText.setText("Buffer: n/a");
+        }
+
+        latencyText.setText(String.format("EDT: %.1f ms  FX: %.1f ms",
+                ms(Metrics.timer(Metrics.EDT_LATENCY).lastNanos()), ms(Metrics.timer(Metrics.FX_LATENCY).lastNanos())));
+
+        Runtime rt = Runtime.getRuntime();
+        long used = rt.totalMemory() - rt.freeMemory();
+        heapText.setText(String.format("Heap: %d / %d MB", used >> 20, rt.maxMemory() >> 20));
+
+        Metrics.Timer render = Metrics.timer(Metrics.RENDER_FRAME);
+        renderText.setText(String.format("Visualizer: %.2f ms (avg %.2f)", ms(render.lastNanos()), ms(render.averageNanos())));
+
+        Metrics.Timer open = Metrics.timer(Metrics.MEDIA_OPEN);
+        Metrics.Timer seek = Metrics.timer(Metrics.SEEK_SETTLE);
+        openText.setText(String.format("Media open: %.0f ms (avg %.0f)  Seek: %.0f ms",
+                ms(open.lastNanos()), ms(open.averageNanos()), ms(seek.lastNanos())));
+
+        probeLatency();
+    }
+
+    /**
+     * Measures how long a task waits in each UI thread's queue; the result
+     * shows up in the next refresh.
+     */
+    private static void probeLatency() {
+        long posted = System.nanoTime();
+        SwingUtilities.invokeLater(() -> Metrics.record(Metrics.EDT_LATENCY, System.nanoTime() - posted));
+        Platform.runLater(() -> Metrics.record(Metrics.FX_LATENCY, System.nanoTime() - posted));
+    }
+
+    private static double ms(long nanos) {
+        return nanos / 1e6;
+    }
 }
@@ -0,0 +1,327 @@
+import javafx.animation.PauseTransition;
+import javafx.beans.value.ChangeListener;
+import javafx.embed.swing.SwingFXUtils;
+import javafx.scene.Group;
+import javafx.scene.Scene;
+import javafx.scene.image.WritableImage;
+import javafx.scene.media.Media;
+import javafx.scene.media.MediaPlayer;
+import javafx.scene.media.MediaView;
+import javafx.util.Duration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.imageio.ImageIO;
+import javax.swing.SwingUtilities;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * Sprite sheets of video thumbnails for seek bar previews.
+ * <p>
+ * A sheet is built in the background by a second, muted player whose
+ * MediaView is never shown. It seeks to evenly spaced points and snapshots
+ * one tile at a time, with a pause between tiles and a longer back-off while
+ * the user is seeking, so it never competes with the real player. Finished
+ * sheets are written to disk keyed by path, modification time and size, and
+ * later opens of the same file get them straight from there.
+ * <p>
+ * The player's position only updates while it plays, so after each seek
+ * it plays until the position reaches the target and then pauses for the
+ * snapshot. A timeout takes the snapshot anyway if that never happens.
+ */
+public class ThumbnailStrip {
+
+    private static final Logger logger = LoggerFactory.getLogger(ThumbnailStrip.class);
+
+    public static final int TILE_WIDTH = 160;
+    public static final int TILE_HEIGHT = 90;
+    private static final int COLUMNS = 10;
+    private static final int MAX_TILES = 100;
+    private static final long MIN_INTERVAL_MS = 5000;
+    private static final int MAGIC = 0x56575448; // "VWTH"
+
+    private static final Duration START_DELAY = Duration.seconds(3);
+    private static final Duration FRAME_TIMEOUT = Duration.seconds(1);
+    private static final long FRAME_TOLERANCE_MS = 500;
+    private static final Duration TILE_PAUSE = Duration.millis(250);
+    private static final Duration BUSY_PAUSE = Duration.seconds(1);
+
+    /**
+     * A finished sheet: {@code count} tiles laid out in rows of ten, each
+     * covering {@code intervalMillis} of the video.
+     */
+    public record Sheet(BufferedImage image, long intervalMillis, int count) {
+
+        /**
+         * The tile for a playback position.
+         */
+        public BufferedImage tileAt(long millis) {
+            int i = (int) Math.max(0, Math.min(count - 1, millis / intervalMillis));
+            return image.getSubimage((i % COLUMNS) * TILE_WIDTH, (i / COLUMNS) * TILE_HEIGHT, TILE_WIDTH, TILE_HEIGHT);
+        }
+    }
+
+    private final File dir;
+    private final BooleanSupplier foregroundBusy;
+    private final AtomicLong generation = new AtomicLong();
+    private final ExecutorService io = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "thumbnail-io");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private Job job; // FX thread
+
+    /**
+     * @param foregroundBusy true while the visible player needs the decoder,
+     *                       e.g. during a seek; generation backs off then
+     */
+    public ThumbnailStrip(File dir, BooleanSupplier foregroundBusy) {
+        this.dir = dir;
+        this.foregroundBusy = foregroundBusy;
+    }
+
+    /**
+     * Delivers the sheet for a video to {@code onReady} on the EDT, from the
+     * disk cache or once generated. Replaces any earlier request.
+     */
+    public void request(File file, Consumer<Sheet> onReady) {
+        long gen = generation.incrementAndGet();
+        FxToolkit.runLater(this::stopJob);
+        io.execute(() -> {
+            if (gen != generation.get())
+                return;
+            Sheet cached = read(file);
+            if (cached != null) {
+                logger.debug("Thumbnail sheet for {} served from cache", file.getName());
+                deliver(gen, cached, onReady);
+            } else {
+                FxToolkit.runLater(() -> {
+                    if (gen == generation.get()) {
+                        stopJob();
+                        job = new Job(file, gen, onReady);
+                        job.start();
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Drops the current request and stops any generation in progress.
+     */
+    public void cancel() {
+        generation.incrementAndGet();
+        FxToolkit.runLater(this::stopJob);
+    }
+
+    public void shutdown() {
+        cancel();
+        io.shutdownNow();
+    }
+
+    // FX thread
+    private void stopJob() {
+        if (job != null) {
+            job.dispose();
+            job = null;
+        }
+    }
+
+    private void deliver(long gen, Sheet sheet, Consumer<Sheet> onReady) {
+        SwingUtilities.invokeLater(() -> {
+            if (gen == generation.get())
+                onReady.accept(sheet);
+        });
+    }
+
+    // --- Disk cache ---
+
+    private File cacheFile(File video) {
+        String key = video.getAbsolutePath() + '|' + video.lastModified() + '|' + video.length();
+        return new File(dir, ArtworkCache.fileName(key) + ".strip");
+    }
+
+    private Sheet read(File video) {
+        File f = cacheFile(video);
+        if (!f.isFile())
+            return null;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(f)))) {
+            if (in.readInt() != MAGIC)
+                throw new IOException("Bad magic");
+            long interval = in.readLong();
+            int count = in.readInt();
+            BufferedImage image = ImageIO.read(in);
+            if (image == null || interval <= 0 || count <= 0)
+                throw new IOException("Truncated sheet");
+            return new Sheet(image, interval, count);
+        } catch (IOException e) {
+            logger.warn("Dropping unreadable thumbnail sheet {}", f, e);
+            f.delete();
+            return null;
+        }
+    }
+
+    private void write(File video, Sheet sheet) {
+        File f = cacheFile(video);
+        File tmp = new File(dir, f.getName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeLong(sheet.intervalMillis());
+            out.writeInt(sheet.count());
+            ImageIO.write(sheet.image(), "png", out);
+        } catch (IOException e) {
+            logger.warn("Could not write thumbnail sheet for {}", video, e);
+            tmp.delete();
+            return;
+        }
+        if (!tmp.renameTo(f))
+            tmp.delete();
+    }
+
+    // --- Generation ---
+
+    /**
+     * One snapshot pass over a video. Lives entirely on the FX thread.
+     */
+    private class Job {
+        private final File file;
+        private final long gen;
+        private final Consumer<Sheet> onReady;
+        private final PauseTransition timer = new PauseTransition();
+        private final ChangeListener<Duration> timeListener = (obs, oldTime, newTime) -> positionChanged(newTime);
+        private final long startNanos = System.nanoTime();
+        private MediaPlayer player;
+        private MediaView view;
+        private BufferedImage sheet;
+        private long interval;
+        private int count;
+        private int index;
+        private long target = -1; // Position of the tile being waited for
+        private int timeouts;
+
+        Job(File file, long gen, Consumer<Sheet> onReady) {
+            this.file = file;
+            this.gen = gen;
+            this.onReady = onReady;
+        }
+
+        void start() {
+            try {
+                player = new MediaPlayer(new Media(file.toURI().toString()));
+            } catch (RuntimeException e) {
+                logger.warn("Cannot generate thumbnails for {}", file.getName(), e);
+                return;
+            }
+            player.setMute(true);
+            player.currentTimeProperty().addListener(timeListener);
+            view = new MediaView(player);
+            view.setFitWidth(TILE_WIDTH);
+            view.setFitHeight(TILE_HEIGHT);
+            view.setPreserveRatio(true);
+            new Scene(new Group(view)); // Never shown, but gives the view something to render into
+
+            player.setOnError(() -> {
+                logger.warn("Thumbnail player failed for {}: {}", file.getName(), player.getError());
+                dispose();
+            });
+            player.setOnReady(() -> {
+                Duration total = player.getTotalDuration();
+                if (total == null || total.isUnknown() || total.isIndefinite() || total.toMillis() <= 0) {
+                    dispose();
+                    return;
+                }
+                long totalMillis = (long) total.toMillis();
+                interval = Math.max(MIN_INTERVAL_MS, totalMillis / MAX_TILES);
+                count = (int) Math.max(1, Math.min(MAX_TILES, (totalMillis + interval - 1) / interval));
+                int rows = (count + COLUMNS - 1) / COLUMNS;
+                sheet = new BufferedImage(COLUMNS * TILE_WIDTH, rows * TILE_HEIGHT, BufferedImage.TYPE_INT_RGB);
+                // Let the real player get going first
+                schedule(START_DELAY, this::seekNext);
+            });
+        }
+
+        private void seekNext() {
+            if (foregroundBusy.getAsBoolean()) {
+                schedule(BUSY_PAUSE, this::seekNext);
+                return;
+            }
+            target = index * interval + interval / 2;
+            player.seek(Duration.millis(target));
+            player.play();
+            schedule(FRAME_TIMEOUT, () -> {
+                timeouts++;
+                capture();
+            });
+        }
+
+        private void positionChanged(Duration position) {
+            if (target >= 0 && position != null && Math.abs(position.toMillis() - target) <= FRAME_TOLERANCE_MS)
+                capture();
+        }
+
+        private void capture() {
+            if (player == null || target < 0)
+                return;
+            target = -1;
+            timer.stop();
+            player.pause();
+            WritableImage snap = view.snapshot(null, null);
+            BufferedImage frame = SwingFXUtils.fromFXImage(snap, null);
+            Graphics2D g = sheet.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            int x = (index % COLUMNS) * TILE_WIDTH;
+            int y = (index / COLUMNS) * TILE_HEIGHT;
+            // Letterbox, the view keeps the video's aspect ratio
+            int w = Math.min(TILE_WIDTH, frame.getWidth());
+            int h = Math.min(TILE_HEIGHT, frame.getHeight());
+            g.drawImage(frame, x + (TILE_WIDTH - w) / 2, y + (TILE_HEIGHT - h) / 2, w, h, null);
+            g.dispose();
+
+            if (++index < count) {
+                schedule(TILE_PAUSE, this::seekNext);
+                return;
+            }
+
+            Sheet done = new Sheet(sheet, interval, count);
+            logger.info("Generated {} thumbnails for {} in {} ms ({} timed out)", count, file.getName(),
+                    (System.nanoTime() - startNanos) / 1_000_000, timeouts);
+            dispose();
+            io.execute(() -> write(file, done));
+            deliver(gen, done, onReady);
+        }
+
+        private void schedule(Duration delay, Runnable step) {
+            timer.setDuration(delay);
+            timer.setOnFinished(e -> {
+                if (player != null)
+                    step.run();
+            });
+            timer.playFromStart();
+        }
+
+        void dispose() {
+            timer.stop();
+            if (player != null) {
+                player.dispose();
+                player = null;
+            }
+            view = null;
+        }
+    }
+}
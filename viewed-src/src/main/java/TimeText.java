@@ -0,0 +1,67 @@
+/**
+ * The "mm:ss / mm:ss" text of the time label, kept in a reusable buffer.
+ * <p>
+ * Position ticks arrive several times a second but the label only shows
+ * whole seconds. {@link #update} rewrites the buffer only when a shown
+ * second changes and tells the caller whether the label needs new text,
+ * so a steady tick stream allocates nothing.
+ */
+public final class TimeText {
+
+    private final char[] chars = new char[48];
+    private int length;
+    private long shownPosition = -1;
+    private long shownTotal = -1;
+
+    /**
+     * @return false if the text would be the same as last time
+     */
+    public boolean update(long positionMillis, long totalMillis) {
+        long position = Math.max(0, positionMillis) / 1000;
+        long total = Math.max(0, totalMillis) / 1000;
+        if (position == shownPosition && total == shownTotal)
+            return false;
+        shownPosition = position;
+        shownTotal = total;
+        int n = write(position, chars, 0);
+        chars[n++] = ' ';
+        chars[n++] = '/';
+        chars[n++] = ' ';
+        length = write(total, chars, n);
+        return true;
+    }
+
+    public String text() {
+        return new String(chars, 0, length);
+    }
+
+    /**
+     * One time as mm:ss; minutes keep growing past 99 rather than rolling into hours.
+     */
+    public static String format(long millis) {
+        char[] buf = new char[24];
+        return new String(buf, 0, write(Math.max(0, millis) / 1000, buf, 0));
+    }
+
+    private static int write(long totalSeconds, char[] dst, int at) {
+        long minutes = totalSeconds / 60;
+        int seconds = (int) (totalSeconds % 60);
+        if (minutes < 10)
+            dst[at++] = '0';
+        // Digits of the minutes, most significant first
+        int start = at;
+        do {
+            dst[at++] = (char) ('0' + minutes % 10);
+            minutes /= 10;
+        } while (minutes > 0);
+        for (int i = start, j = at - 1; i < j; i++, j--) {
+            char c = dst[i];
+            dst[i] = dst[j];
+            dst[j] = c;
+        }
+        dst[at++] = ':';
+        dst[at++] = (char) ('0' + seconds / 10);
+        dst[at++] = (char) ('0' + seconds % 10);
+        return at;
+    }
+}
@@ -0,0 +1,94 @@
+import javafx.scene.media.Media;
+import javafx.scene.media.MediaPlayer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Prepares the next playlist track while the current one is still playing.
+ * <p>
+ * A {@link MediaPlayer} that is created but not played prerolls to READY,
+ * so by the time the current track ends the next one only needs
+ * {@code play()}. Only one track is kept prepared. All methods must be
+ * called on the FX thread.
+ */
+public class TrackPreloader {
+
+    private static final Logger logger = LoggerFactory.getLogger(TrackPreloader.class);
+
+    private final double leadSeconds;
+    private int index = -1;
+    private String location;
+    private MediaPlayer player;
+
+    /**
+     * @param leadSeconds how long before the end of the current track to start preparing the next one
+     */
+    public TrackPreloader(double leadSeconds) {
+        this.leadSeconds = leadSeconds;
+    }
+
+    public double getLeadSeconds() {
+        return leadSeconds;
+    }
+
+    /**
+     * True while a player for this playlist index is prepared or preparing.
+     */
+    public boolean isPreloading(int index) {
+        return player != null && index == this.index;
+    }
+
+    /**
+     * Starts prerolling a track unless it is already prepared.
+     *
+     * @param uri the media URI, as passed to {@link Media}
+     */
+    public void preload(int index, String uri) {
+        if (player != null && index == this.index && uri.equals(location))
+            return;
+        cancel();
+        try {
+            MediaPlayer prepared = new MediaPlayer(new Media(uri));
+            prepared.setOnError(() -> {
+                logger.warn("Could not preload track {}: {}", index, prepared.getError().getMessage());
+                if (player == prepared)
+                    cancel();
+            });
+            this.index = index;
+            this.location = uri;
+            this.player = prepared;
+            logger.debug("Preloading track {}: {}", index, uri);
+        } catch (Exception e) {
+            logger.warn("Could not preload track {}", index, e);
+        }
+    }
+
+    /**
+     * Hands over the prepared player if it matches the requested track.
+     * Anything else that was prepared is disposed.
+     *
+     * @return the prerolled player, or null if the track wasn't prepared
+     */
+    public MediaPlayer take(int index, String uri) {
+        MediaPlayer prepared = player;
+        if (prepared == null || index != this.index || !uri.equals(location)
+                || prepared.getStatus() == MediaPlayer.Status.HALTED) {
+            cancel();
+            return null;
+        }
+        player = null;
+        this.index = -1;
+        this.location = null;
+        prepared.setOnError(null);
+        return prepared;
+    }
+
+    public void cancel() {
+        if (player != null) {
+            player.dispose();
+            player = null;
+        }
+        index = -1;
+        location = null;
+    }
+}
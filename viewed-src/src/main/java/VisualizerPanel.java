@@ -1,11 +1,31 @@
+import javafx.scene.media.AudioSpectrumListener;
 import javafx.scene.media.MediaPlayer;
 
 import javax.swing.*;
 import java.awt.*;
+import java.util.Arrays;
 
 public class VisualizerPanel extends JPanel {
 
+    private static final int THRESHOLD_DB = -60;
+    private static final float PEAK_DECAY = 0.01f;
+    private static final int PEAK_HOLD_FRAMES = 15;
+
     private MediaPlayer mediaPlayer;
+    private int bands = 64;
+    private double interval = 0.05; // 20 FPS
+    private float smoothing = 0.6f;
+    private boolean peakHold = true;
+
+    // Written by the media thread, read by paintComponent
+    private volatile SpectrumBuffer buffer = new SpectrumBuffer(bands);
+    private final AudioSpectrumListener spectrumListener = this::spectrumDataUpdate;
+
+    // Owned by the EDT
+    private float[] frame = new float[bands];
+    private float[] levels = new float[bands];
+    private float[] peaks = new float[bands];
+    private int[] peakAge = new int[bands];
 
     public VisualizerPanel() {
         setPreferredSize(new Dimension(800, 150));
@@ -14,33 +34,95 @@ public class VisualizerPanel extends JPanel {
 
     // Call this when an MP3 is loaded
     public void attachMediaPlayer(MediaPlayer player) {
+        if (mediaPlayer != null && mediaPlayer != player && mediaPlayer.getStatus() != MediaPlayer.Status.DISPOSED)
+            mediaPlayer.setAudioSpectrumListener(null);
         this.mediaPlayer = player;
+        if (player == null) {
+            RenderScheduler.get().unregister(this);
+            return;
+        }
 
-        // You can start a thread to periodically repaint using audio data
-        new Thread(() -> {
-            while (mediaPlayer != null) {
-                repaint();
-                try {
-                    Thread.sleep(50); // 20 FPS
-                } catch (InterruptedException ignored) {}
-            }
-        }).start();
+        player.setAudioSpectrumNumBands(bands);
+        player.setAudioSpectrumInterval(interval);
+        player.setAudioSpectrumThreshold(THRESHOLD_DB);
+        player.setAudioSpectrumListener(spectrumListener);
+
+        RenderScheduler.get().register(this);
     }
 
     public void reset() {
-        repaint();
+        attachMediaPlayer(null);
+        SwingUtilities.invokeLater(() -> {
+            Arrays.fill(levels, 0);
+            Arrays.fill(peaks, 0);
+            repaint();
+        });
+    }
+
+    /**
+     * Number of frequency bands shown. Takes effect on the next attached player.
+     */
+    public void setBands(int bands) {
+        this.bands = bands;
+        buffer = new SpectrumBuffer(bands);
+        frame = new float[bands];
+        levels = new float[bands];
+        peaks = new float[bands];
+        peakAge = new int[bands];
+    }
+
+    /**
+     * Seconds between spectrum updates. Takes effect on the next attached player.
+     */
+    public void setInterval(double interval) {
+        this.interval = interval;
+    }
+
+    /**
+     * 0 shows raw magnitudes, values towards 1 make the bars fall slower.
+     */
+    public void setSmoothing(float smoothing) {
+        this.smoothing = Math.max(0f, Math.min(0.95f, smoothing));
+    }
+
+    public void setPeakHold(boolean peakHold) {
+        this.peakHold = peakHold;
+    }
+
+    // Media thread, called once per interval
+    private void spectrumDataUpdate(double timestamp, double duration, float[] magnitudes, float[] phases) {
+        buffer.publish(magnitudes);
     }
 
     @Override
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
-        g.setColor(Color.GREEN);
-        // Example: draw some dummy waveform (replace with real audio levels)
+        int n = Math.min(frame.length, levels.length);
+        if (buffer.read(frame)) {
+            for (int i = 0; i < n; i++) {
+                float value = Math.max(0f, Math.min(1f, (frame[i] - THRESHOLD_DB) / -THRESHOLD_DB));
+                levels[i] = value > levels[i] ? value : levels[i] * smoothing + value * (1 - smoothing);
+                if (levels[i] >= peaks[i]) {
+                    peaks[i] = levels[i];
+                    peakAge[i] = 0;
+                } else if (++peakAge[i] > PEAK_HOLD_FRAMES) {
+                    peaks[i] = Math.max(0f, peaks[i] - PEAK_DECAY);
+                }
+            }
+        }
+
         int w = getWidth();
         int h = getHeight();
-        for (int i = 0; i < w; i += 5) {
-            int height = (int)(Math.random() * h);
-            g.fillRect(i, h - height, 3, height);
+        int barWidth = Math.max(1, w / Math.max(1, n));
+        for (int i = 0; i < n; i++) {
+            int x = i * barWidth;
+            int height = (int) (levels[i] * h);
+            g.setColor(Color.GREEN);
+            g.fillRect(x, h - height, Math.max(1, barWidth - 2), height);
+            if (peakHold && peaks[i] > 0) {
+                g.setColor(Color.WHITE);
+                g.fillRect(x, h - (int) (peaks[i] * h) - 2, Math.max(1, barWidth - 2), 2);
+            }
         }
     }
 }
@@ -0,0 +1,126 @@
+import java.io.*;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Min/max peak pyramid of an audio file, memory-mapped from disk.
+ * <p>
+ * Layout: magic, version, duration in ms, frames per level-0 peak and the
+ * level count, then each level's peak count, then the levels themselves as
+ * (min, max) signed byte pairs. Every level halves the one before it, so a
+ * redraw at any width reads from the coarsest level that still has a peak
+ * per pixel and never touches the audio again.
+ */
+public class Waveform {
+
+    private static final int MAGIC = 0x56575746; // "VWWF"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 24;
+
+    private final MappedByteBuffer buf;
+    private final long durationMillis;
+    private final int[] counts;
+    private final int[] offsets;
+
+    private Waveform(MappedByteBuffer buf) throws IOException {
+        this.buf = buf;
+        if (buf.remaining() < HEADER_BYTES || buf.getInt(0) != MAGIC || buf.getInt(4) != VERSION)
+            throw new IOException("Not a waveform file");
+        durationMillis = buf.getLong(8);
+        int levels = buf.getInt(20);
+        if (levels <= 0 || levels > 32)
+            throw new IOException("Bad level count " + levels);
+
+        counts = new int[levels];
+        offsets = new int[levels];
+        int offset = HEADER_BYTES + levels * 4;
+        for (int i = 0; i < levels; i++) {
+            counts[i] = buf.getInt(HEADER_BYTES + i * 4);
+            offsets[i] = offset;
+            offset += counts[i] * 2;
+        }
+        if (offset > buf.limit())
+            throw new IOException("Truncated waveform file");
+    }
+
+    public static Waveform map(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            return new Waveform(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Writes a pyramid whose level 0 is {@code peaks} (min, max pairs).
+     */
+    public static void write(File file, long durationMillis, int framesPerPeak, byte[] peaks, int peakCount)
+            throws IOException {
+        // Build the coarser levels by merging neighbours until they're small
+        java.util.List<byte[]> levels = new java.util.ArrayList<>();
+        java.util.List<Integer> counts = new java.util.ArrayList<>();
+        byte[] level = peaks;
+        int count = peakCount;
+        levels.add(level);
+        counts.add(count);
+        while (count > 256 && levels.size() < 32) {
+            int next = (count + 1) / 2;
+            byte[] merged = new byte[next * 2];
+            for (int i = 0; i < next; i++) {
+                int a = i * 2, b = Math.min(a + 1, count - 1);
+                merged[i * 2] = (byte) Math.min(level[a * 2], level[b * 2]);
+                merged[i * 2 + 1] = (byte) Math.max(level[a * 2 + 1], level[b * 2 + 1]);
+            }
+            level = merged;
+            count = next;
+            levels.add(level);
+            counts.add(count);
+        }
+
+        File tmp = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(durationMillis);
+            out.writeInt(framesPerPeak);
+            out.writeInt(levels.size());
+            for (int c : counts)
+                out.writeInt(c);
+            for (int i = 0; i < levels.size(); i++)
+                out.write(levels.get(i), 0, counts.get(i) * 2);
+        }
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    public int levels() {
+        return counts.length;
+    }
+
+    public int peakCount(int level) {
+        return counts[level];
+    }
+
+    /**
+     * The coarsest level with at least {@code columns} peaks.
+     */
+    public int levelFor(int columns) {
+        for (int i = counts.length - 1; i > 0; i--) {
+            if (counts[i] >= columns)
+                return i;
+        }
+        return 0;
+    }
+
+    public byte min(int level, int index) {
+        return buf.get(offsets[level] + index * 2);
+    }
+
+    public byte max(int level, int index) {
+        return buf.get(offsets[level] + index * 2 + 1);
+    }
+}
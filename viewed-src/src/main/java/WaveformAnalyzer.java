@@ -0,0 +1,154 @@
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+import javax.swing.SwingUtilities;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Builds {@link Waveform} files in the background.
+ * <p>
+ * WAV and AIFF are decoded with javax.sound.sampled and reduced to one
+ * min/max pair per {@value #FRAMES_PER_PEAK} frames across all channels.
+ * Results are cached by path, modification time and size, so a file is
+ * only ever decoded once. Formats Java Sound can't read get no waveform.
+ */
+public class WaveformAnalyzer {
+
+    private static final Logger logger = LoggerFactory.getLogger(WaveformAnalyzer.class);
+
+    private static final int FRAMES_PER_PEAK = 256;
+
+    private final File dir;
+    private final AtomicLong generation = new AtomicLong();
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "waveform-analyzer");
+        t.setDaemon(true);
+        t.setPriority(Thread.MIN_PRIORITY);
+        return t;
+    });
+
+    public WaveformAnalyzer(File dir) {
+        this.dir = dir;
+    }
+
+    /**
+     * Delivers the waveform for {@code file} to {@code onReady} on the EDT,
+     * from the cache or after decoding. Replaces any earlier request.
+     */
+    public void request(File file, Consumer<Waveform> onReady) {
+        long gen = generation.incrementAndGet();
+        worker.execute(() -> {
+            if (gen != generation.get())
+                return;
+            Waveform waveform = load(file, gen);
+            if (waveform != null) {
+                SwingUtilities.invokeLater(() -> {
+                    if (gen == generation.get())
+                        onReady.accept(waveform);
+                });
+            }
+        });
+    }
+
+    public void cancel() {
+        generation.incrementAndGet();
+    }
+
+    public void shutdown() {
+        cancel();
+        worker.shutdownNow();
+    }
+
+    private Waveform load(File file, long gen) {
+        String key = file.getAbsolutePath() + '|' + file.lastModified() + '|' + file.length();
+        File cached = new File(dir, ArtworkCache.fileName(key) + ".wave");
+        if (cached.isFile()) {
+            try {
+                return Waveform.map(cached);
+            } catch (IOException e) {
+                logger.warn("Dropping unreadable waveform {}", cached, e);
+                cached.delete();
+            }
+        }
+
+        long start = System.nanoTime();
+        try {
+            if (!analyze(file, cached, gen))
+                return null; // Superseded
+            logger.info("Analyzed waveform of {} in {} ms", file.getName(), (System.nanoTime() - start) / 1_000_000);
+            return Waveform.map(cached);
+        } catch (UnsupportedAudioFileException e) {
+            logger.debug("No waveform for {}: {}", file.getName(), e.getMessage());
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Could not analyze {}", file.getName(), e);
+        }
+        return null;
+    }
+
+    private boolean analyze(File file, File out, long gen) throws IOException, UnsupportedAudioFileException {
+        try (AudioInputStream source = AudioSystem.getAudioInputStream(file)) {
+            AudioFormat format = source.getFormat();
+            int channels = format.getChannels();
+            AudioFormat pcm = new AudioFormat(AudioFormat.Encoding.PCM_SIGNED, format.getSampleRate(), 16,
+                    channels, channels * 2, format.getSampleRate(), false);
+            try (AudioInputStream in = pcm.matches(format) ? source : AudioSystem.getAudioInputStream(pcm, source)) {
+                long frames = source.getFrameLength();
+                byte[] peaks = new byte[frames > 0 ? (int) Math.min(Integer.MAX_VALUE - 8, (frames / FRAMES_PER_PEAK + 1) * 2) : 8192];
+                int peakCount = 0;
+
+                byte[] buffer = new byte[FRAMES_PER_PEAK * channels * 2 * 64];
+                int min = 0, max = 0, inPeak = 0, pending = 0;
+                long totalFrames = 0;
+                int read;
+                while ((read = in.read(buffer, pending, buffer.length - pending)) > 0) {
+                    if (gen != generation.get())
+                        return false;
+                    int bytes = pending + read;
+                    int whole = bytes - bytes % (channels * 2);
+                    for (int i = 0; i < whole; i += 2) {
+                        int sample = (short) ((buffer[i] & 0xFF) | (buffer[i + 1] << 8));
+                        if (sample < min)
+                            min = sample;
+                        if (sample > max)
+                            max = sample;
+                        if ((i / 2 + 1) % channels == 0 && ++inPeak == FRAMES_PER_PEAK) {
+                            if (peakCount * 2 + 2 > peaks.length)
+                                peaks = Arrays.copyOf(peaks, peaks.length * 2);
+                            peaks[peakCount * 2] = (byte) (min >> 8);
+                            peaks[peakCount * 2 + 1] = (byte) (max >> 8);
+                            peakCount++;
+                            min = max = inPeak = 0;
+                        }
+                    }
+                    totalFrames += whole / (channels * 2);
+                    // Keep a split frame for the next read
+                    pending = bytes - whole;
+                    System.arraycopy(buffer, whole, buffer, 0, pending);
+                }
+                if (inPeak > 0) {
+                    if (peakCount * 2 + 2 > peaks.length)
+                        peaks = Arrays.copyOf(peaks, peaks.length + 2);
+                    peaks[peakCount * 2] = (byte) (min >> 8);
+                    peaks[peakCount * 2 + 1] = (byte) (max >> 8);
+                    peakCount++;
+                }
+                if (peakCount == 0)
+                    throw new IOException("No audio frames");
+
+                long durationMillis = (long) (totalFrames * 1000 / format.getSampleRate());
+                Waveform.write(out, durationMillis, FRAMES_PER_PEAK, peaks, peakCount);
+                return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,82 @@
+import javax.swing.JSlider;
+import javax.swing.plaf.basic.BasicSliderUI;
+import java.awt.Color;
+import java.awt.Graphics;
+
+/**
+ * Seek bar that draws a {@link Waveform} overview behind the thumb.
+ * <p>
+ * Every paint reads peaks straight from the memory-mapped pyramid at the
+ * level that matches the bar's width, so resizing costs no decoding.
+ */
+public class WaveformSeekBar extends JSlider {
+
+    private static final Color WAVE = new Color(90, 140, 200, 150);
+
+    private Waveform waveform;
+
+    public WaveformSeekBar(int min, int max, int value) {
+        super(min, max, value);
+    }
+
+    /**
+     * Shows a waveform, or none when {@code waveform} is null. EDT.
+     */
+    public void setWaveform(Waveform waveform) {
+        this.waveform = waveform;
+        // The UI fills the background itself unless we take that over
+        setOpaque(waveform == null);
+        repaint();
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        if (waveform != null) {
+            g.setColor(getBackground());
+            g.fillRect(0, 0, getWidth(), getHeight());
+            paintWaveform(g);
+        }
+        super.paintComponent(g);
+    }
+
+    private void paintWaveform(Graphics g) {
+        int left = 0, right = getWidth();
+        if (getUI() instanceof BasicSliderUI ui) {
+            // Line the waveform up with the thumb's travel
+            left = firstX(ui, getMinimum() + 1);
+            right = firstX(ui, getMaximum());
+        }
+        int columns = right - left;
+        if (columns <= 0)
+            return;
+
+        int level = waveform.levelFor(columns);
+        int count = waveform.peakCount(level);
+        int mid = getHeight() / 2;
+        double scale = (getHeight() / 2.0 - 1) / 128.0;
+        g.setColor(WAVE);
+        for (int x = 0; x < columns; x++) {
+            int from = (int) ((long) x * count / columns);
+            int to = Math.max(from + 1, (int) ((long) (x + 1) * count / columns));
+            int min = 0, max = 0;
+            for (int i = from; i < to && i < count; i++) {
+                min = Math.min(min, waveform.min(level, i));
+                max = Math.max(max, waveform.max(level, i));
+            }
+            g.drawLine(left + x, mid - (int) (max * scale), left + x, mid - (int) (min * scale));
+        }
+    }
+
+    // Binary search, the UI only exposes the x -> value direction publicly
+    private int firstX(BasicSliderUI ui, int value) {
+        int lo = 0, hi = getWidth();
+        while (lo < hi) {
+            int x = (lo + hi) >>> 1;
+            if (ui.valueForXPosition(x) >= value)
+                hi = x;
+            else
+                lo = x + 1;
+        }
+        return lo;
+    }
+}
@@ -0,0 +1,30 @@
+import java.lang.management.ManagementFactory;
+
+/**
+ * Bytes allocated on the current thread, from the HotSpot thread MXBean.
+ */
+final class Allocations {
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private Allocations() {
+    }
+
+    interface Task {
+        void run() throws Exception;
+    }
+
+    static long current() {
+        return THREADS.getCurrentThreadAllocatedBytes();
+    }
+
+    /**
+     * Bytes the task allocated. Reading the counter doesn't allocate itself.
+     */
+    static long measure(Task task) throws Exception {
+        long before = current();
+        task.run();
+        return current() - before;
+    }
+}
@@ -0,0 +1,82 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArtworkCacheTest {
+
+    @TempDir
+    Path dir;
+
+    private File cacheDir() throws IOException {
+        return Files.createDirectories(dir.resolve("cache")).toFile();
+    }
+
+    @Test
+    void diskTierStaysUnderItsCap() throws IOException {
+        long cap = 200 * 1024;
+        ArtworkCache cache = new ArtworkCache(1024, cap, cacheDir(), 64);
+        for (int i = 0; i < 40; i++)
+            cache.put(source(i), noise(i));
+
+        long onDisk = 0;
+        for (File f : cacheDir().listFiles())
+            onDisk += Math.max(4096, f.length());
+        assertTrue(onDisk <= cap, "disk tier holds " + onDisk + " bytes");
+        assertTrue(cache.getDiskEvictions() > 0);
+        assertEquals(onDisk, cache.getDiskBytes());
+    }
+
+    @Test
+    void recentlyReadThumbnailsSurviveTrimming() throws IOException {
+        long cap = 200 * 1024;
+        ArtworkCache cache = new ArtworkCache(1024, cap, cacheDir(), 64);
+        File first = source(0);
+        cache.put(first, noise(0));
+        for (int i = 1; i < 40; i++) {
+            // The memory tier is tiny, so this goes to disk and refreshes the file's recency
+            assertTrue(cache.get(first).found());
+            cache.put(source(i), noise(i));
+        }
+        assertTrue(cache.get(first).found());
+    }
+
+    @Test
+    void startIndexesExistingFilesOnce() throws Exception {
+        ArtworkCache writer = new ArtworkCache(1024, 1 << 20, cacheDir(), 64);
+        writer.put(source(1), noise(1));
+        writer.put(source(2), null);
+
+        ArtworkCache cache = new ArtworkCache(1024, 1 << 20, cacheDir(), 64);
+        assertEquals(0, cache.getDiskEntries());
+        cache.start();
+        cache.start();
+        for (int i = 0; i < 100 && cache.getDiskEntries() < 2; i++)
+            Thread.sleep(20);
+        assertEquals(2, cache.getDiskEntries());
+    }
+
+    private File source(int i) throws IOException {
+        File f = dir.resolve("src-" + i).toFile();
+        if (!f.exists())
+            Files.writeString(f.toPath(), "track " + i);
+        return f;
+    }
+
+    /** Random pixels, so the PNG doesn't compress to nothing (about 16 KB). */
+    private static BufferedImage noise(int seed) {
+        BufferedImage img = new BufferedImage(64, 64, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(seed);
+        for (int y = 0; y < 64; y++)
+            for (int x = 0; x < 64; x++)
+                img.setRGB(x, y, random.nextInt());
+        return img;
+    }
+}
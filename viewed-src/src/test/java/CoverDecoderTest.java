@@ -0,0 +1,70 @@
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CoverDecoderTest {
+
+    private static final int SOURCE = 4000;
+    private static final int TARGET = 300;
+
+    private static byte[] jpeg;
+
+    @BeforeAll
+    static void createCover() throws IOException {
+        BufferedImage img = new BufferedImage(SOURCE, SOURCE, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = img.createGraphics();
+        g.setPaint(new GradientPaint(0, 0, Color.ORANGE, SOURCE, SOURCE, Color.BLUE));
+        g.fillRect(0, 0, SOURCE, SOURCE);
+        g.setColor(Color.WHITE);
+        for (int i = 0; i < SOURCE; i += 200)
+            g.drawLine(i, 0, SOURCE - i, SOURCE);
+        g.dispose();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(img, "jpg", out);
+        jpeg = out.toByteArray();
+    }
+
+    @Test
+    void largeCoverIsScaledToFit() throws IOException {
+        BufferedImage img = CoverDecoder.decode(jpeg, TARGET, TARGET);
+        assertNotNull(img);
+        assertTrue(img.getWidth() <= TARGET && img.getHeight() <= TARGET,
+                "decoded to " + img.getWidth() + "x" + img.getHeight());
+        assertEquals(TARGET, Math.max(img.getWidth(), img.getHeight()));
+    }
+
+    @Test
+    void subsampledDecodeAllocatesFarLessThanFullDecode() throws Exception {
+        // Warm both paths so class loading and JIT don't count against either
+        for (int i = 0; i < 2; i++) {
+            CoverDecoder.decode(jpeg, TARGET, TARGET);
+            plainDecode();
+        }
+
+        long start = System.nanoTime();
+        long subsampled = Allocations.measure(() -> CoverDecoder.decode(jpeg, TARGET, TARGET));
+        long subsampledNanos = System.nanoTime() - start;
+        start = System.nanoTime();
+        long plain = Allocations.measure(CoverDecoderTest::plainDecode);
+        long plainNanos = System.nanoTime() - start;
+
+        System.out.printf("4000px cover: CoverDecoder %d KB in %d ms, ImageIO.read + scale %d KB in %d ms%n",
+                subsampled / 1024, subsampledNanos / 1_000_000, plain / 1024, plainNanos / 1_000_000);
+        // The full decode holds all 16M pixels at once; the subsampled one about 1/169th of them
+        assertTrue(plain > (long) SOURCE * SOURCE * 3, "full decode allocated only " + plain);
+        assertTrue(subsampled * 10 < plain, "subsampled " + subsampled + " vs full " + plain);
+    }
+
+    private static void plainDecode() throws IOException {
+        BufferedImage full = ImageIO.read(new ByteArrayInputStream(jpeg));
+        CoverDecoder.scaleToFit(full, TARGET, TARGET);
+    }
+}
@@ -0,0 +1,42 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LibraryIndexTest {
+
+    // Magic, version, count, then the first entry's two longs
+    private static final int FIRST_STRING = 12 + 16;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void readsWhatWasWritten() throws IOException {
+        File file = dir.resolve("library.idx").toFile();
+        List<MediaLibrary.Entry> entries = List.of(
+                new MediaLibrary.Entry("/music/a.mp3", 1000, 4096, "Title", "Artist", "Album"),
+                new MediaLibrary.Entry("/music/b.m4a", 2000, 8192, "Ünïcödé", "", ""));
+        LibraryIndex.write(file, entries);
+        assertEquals(entries, LibraryIndex.read(file));
+    }
+
+    @Test
+    void corruptStringLengthIsAnIOException() throws IOException {
+        for (int length : new int[]{Integer.MAX_VALUE, -1, 1000}) {
+            File file = dir.resolve("library-" + length + ".idx").toFile();
+            LibraryIndex.write(file, List.of(new MediaLibrary.Entry("/music/a.mp3", 1000, 4096, "T", "A", "B")));
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                raf.seek(FIRST_STRING);
+                raf.writeInt(length);
+            }
+            assertThrows(IOException.class, () -> LibraryIndex.read(file), "length " + length);
+        }
+    }
+}
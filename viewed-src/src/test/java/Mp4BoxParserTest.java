@@ -0,0 +1,79 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class Mp4BoxParserTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void readsDurationFromMvhd() throws IOException {
+        // Version 0: version/flags, two times, timescale 1000, duration 90 s
+        ByteBuffer mvhd = ByteBuffer.allocate(100).putInt(0).putInt(0).putInt(0).putInt(1000).putInt(90_000);
+        Mp4BoxParser.Info info = Mp4BoxParser.parse(file(ftyp(), box("moov", box("mvhd", mvhd.array()))));
+        assertEquals(90_000, info.durationMillis());
+    }
+
+    @Test
+    void truncatedMvhdIsSkipped() throws IOException {
+        for (int length = 0; length < 32; length++) {
+            byte[] body = new byte[length];
+            if (length > 0)
+                body[0] = 1; // Version 1 wants 32 bytes
+            Mp4BoxParser.Info info = Mp4BoxParser.parse(file(ftyp(), box("moov", box("mvhd", body))));
+            assertEquals(0, info.durationMillis(), "mvhd of " + length + " bytes");
+        }
+    }
+
+    @Test
+    void truncatedTkhdIsSkipped() throws IOException {
+        byte[] trak = box("trak", box("tkhd", new byte[0]));
+        Mp4BoxParser.Info info = Mp4BoxParser.parse(file(ftyp(), box("moov", trak)));
+        assertEquals("unknown", info.resolution());
+    }
+
+    @Test
+    void boxPastTheEndIsAnIOException() throws IOException {
+        // 64-bit size far beyond the file, and no moov before it
+        ByteBuffer huge = ByteBuffer.allocate(16).putInt(1).put(ascii("mdat")).putLong(Long.MAX_VALUE - 4);
+        File file = file(ftyp(), huge.array());
+        assertThrows(IOException.class, () -> Mp4BoxParser.parse(file));
+    }
+
+    @Test
+    void notAnMp4IsAnIOException() throws IOException {
+        File file = file("\u0001\u0002 plain text, not boxes".getBytes(StandardCharsets.ISO_8859_1));
+        assertThrows(IOException.class, () -> Mp4BoxParser.parse(file));
+    }
+
+    private File file(byte[]... parts) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] part : parts)
+            out.write(part);
+        File file = Files.createTempFile(dir, "test", ".mp4").toFile();
+        Files.write(file.toPath(), out.toByteArray());
+        return file;
+    }
+
+    private static byte[] ftyp() {
+        return box("ftyp", ascii("isom\0\0\0\0isom"));
+    }
+
+    private static byte[] box(String type, byte[] body) {
+        return ByteBuffer.allocate(8 + body.length).putInt(8 + body.length).put(ascii(type)).put(body).array();
+    }
+
+    private static byte[] ascii(String s) {
+        return s.getBytes(StandardCharsets.ISO_8859_1);
+    }
+}
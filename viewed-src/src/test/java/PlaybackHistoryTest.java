@@ -0,0 +1,72 @@
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.prefs.BackingStoreException;
+import java.util.prefs.Preferences;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlaybackHistoryTest {
+
+    @TempDir
+    Path dir;
+
+    private final Preferences prefs = Preferences.userRoot().node("viewed-test/history-" + System.nanoTime());
+
+    @AfterEach
+    void removePrefs() throws BackingStoreException {
+        Preferences parent = prefs.parent();
+        prefs.removeNode();
+        if (parent.childrenNames().length == 0)
+            parent.removeNode();
+    }
+
+    @Test
+    void firstStartImportsAndRemovesOldRecentFiles() throws Exception {
+        prefs.put("recentFile0", "/music/newest.mp3");
+        prefs.put("recentFile1", "/video/older.mp4");
+        prefs.put("recentFile2", "/music/newest.mp3");
+        prefs.putInt("volume", 80);
+        File log = dir.resolve("history.log").toFile();
+
+        PlaybackHistory history = load(log);
+        assertEquals(List.of("/music/newest.mp3", "/video/older.mp4"), paths(history));
+        assertNull(prefs.get("recentFile0", null));
+        assertNull(prefs.get("recentFile1", null));
+        assertNull(prefs.get("recentFile2", null));
+        assertEquals(80, prefs.getInt("volume", 0));
+
+        // Now only in the log
+        assertEquals(List.of("/music/newest.mp3", "/video/older.mp4"), paths(load(log)));
+    }
+
+    @Test
+    void existingLogLeavesPreferencesAlone() throws Exception {
+        File log = dir.resolve("history.log").toFile();
+        Files.writeString(log.toPath(), "");
+        prefs.put("recentFile0", "/music/old.mp3");
+
+        assertEquals(List.of(), paths(load(log)));
+        assertEquals("/music/old.mp3", prefs.get("recentFile0", null));
+    }
+
+    private PlaybackHistory load(File log) throws InterruptedException {
+        PlaybackHistory history = new PlaybackHistory(log, prefs);
+        CountDownLatch loaded = new CountDownLatch(1);
+        history.start(loaded::countDown);
+        assertTrue(loaded.await(5, TimeUnit.SECONDS));
+        history.shutdown();
+        return history;
+    }
+
+    private static List<String> paths(PlaybackHistory history) {
+        return history.recent(10).stream().map(PlaybackHistory.Item::path).toList();
+    }
+}
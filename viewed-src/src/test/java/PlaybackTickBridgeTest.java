@@ -0,0 +1,150 @@
+import javafx.util.Duration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.prefs.BackingStoreException;
+import java.util.prefs.Preferences;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlaybackTickBridgeTest {
+
+    private static final String PATH = "/music/long.mp3";
+    private static final long TOTAL = 3 * 60 * 60 * 1000L;
+
+    @TempDir
+    Path dir;
+
+    private final Preferences prefs = Preferences.userRoot().node("viewed-test/ticks-" + System.nanoTime());
+    private PlaybackHistory history;
+
+    @AfterEach
+    void cleanUp() throws BackingStoreException {
+        if (history != null)
+            history.shutdown();
+        Preferences parent = prefs.parent();
+        prefs.removeNode();
+        if (parent.childrenNames().length == 0)
+            parent.removeNode();
+    }
+
+    /**
+     * The path PlayerUI wires up: FX ticks go through the session (history,
+     * seeks, preloading) and into the bridge, the EDT side delivers them to
+     * the session's time label and seek bar logic.
+     */
+    @Test
+    void ticksWithinOneSecondAllocateNothing() throws Exception {
+        PlayerSession session = startSession();
+        View view = new View();
+        PlaybackTickBridge bridge = new PlaybackTickBridge(10,
+                (position, total) -> session.showPosition(position, total, view));
+        bridge.setFxListener(position -> session.positionChanged(position, null, -1));
+        Duration length = Duration.millis(TOTAL);
+        Duration[] ticks = new Duration[1000];
+        for (int i = 0; i < ticks.length; i++)
+            ticks[i] = Duration.millis(61_000 + i);
+
+        for (int i = 0; i < 100_000; i++) {
+            bridge.onTick(ticks[i % ticks.length], length);
+            bridge.deliver();
+        }
+        // Only the label text of a new second allocates, so stay inside one
+        bridge.onTick(ticks[0], length);
+        bridge.deliver();
+        assertEquals("01:01 / 180:00", view.text);
+        assertEquals(61_000, history.get(PATH).positionMillis());
+
+        int rounds = 10_000;
+        long bytes = Allocations.measure(() -> {
+            for (int i = 0; i < rounds; i++) {
+                bridge.onTick(ticks[i % ticks.length], length);
+                if (i % 4 == 0)
+                    bridge.deliver();
+            }
+        });
+        assertEquals(0, bytes, rounds + " ticks allocated " + bytes + " bytes");
+        assertEquals(61_000, history.get(PATH).positionMillis());
+    }
+
+    @Test
+    void ticksBetweenDeliveriesAreCoalesced() {
+        AtomicLong last = new AtomicLong(-1);
+        PlaybackTickBridge bridge = new PlaybackTickBridge(10, (position, total) -> last.set(position));
+
+        bridge.publish(100, 5000);
+        bridge.publish(200, 5000);
+        bridge.publish(300, 5000);
+        bridge.deliver();
+        assertEquals(300, last.get());
+        bridge.deliver(); // Nothing new
+        bridge.publish(400, 5000);
+        bridge.deliver();
+
+        assertEquals(400, last.get());
+        assertEquals(2, bridge.getDelivered());
+        assertEquals(2, bridge.getCoalesced());
+    }
+
+    @Test
+    void positionIsNeverPairedWithAnotherTicksLength() throws Exception {
+        AtomicLong torn = new AtomicLong();
+        PlaybackTickBridge bridge = new PlaybackTickBridge(10, (position, total) -> {
+            if (total != position * 2)
+                torn.incrementAndGet();
+        });
+        Thread writer = new Thread(() -> {
+            for (long i = 1; i <= 2_000_000; i++)
+                bridge.publish(i, i * 2);
+        }, "test-fx");
+        writer.start();
+        while (writer.isAlive())
+            bridge.deliver();
+        bridge.deliver();
+
+        assertEquals(0, torn.get());
+        assertTrue(bridge.getDelivered() > 0);
+    }
+
+    private PlayerSession startSession() throws InterruptedException {
+        history = new PlaybackHistory(dir.resolve("history.log").toFile(), prefs);
+        PlayerSession session = new PlayerSession(history, 5);
+        CountDownLatch loaded = new CountDownLatch(1);
+        session.start(loaded::countDown);
+        assertTrue(loaded.await(5, TimeUnit.SECONDS));
+        session.recordPlay(PATH, false);
+        return session;
+    }
+
+    private static class View implements PlayerSession.PositionView {
+        String text;
+        int maximum;
+        int value;
+
+        @Override
+        public void setTimeText(String text) {
+            this.text = text;
+        }
+
+        @Override
+        public int seekBarWidth() {
+            return 800;
+        }
+
+        @Override
+        public boolean isDragging() {
+            return false;
+        }
+
+        @Override
+        public void setSeekBar(int maximum, int value) {
+            this.maximum = maximum;
+            this.value = value;
+        }
+    }
+}
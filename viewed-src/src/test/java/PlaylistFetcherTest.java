@@ -0,0 +1,159 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlaylistFetcherTest {
+
+    private static final String PLAYLIST = "#EXTM3U\n#EXTINF:10,First\nhttp://example.com/1.mp3\n";
+
+    @TempDir
+    Path dir;
+
+    private HttpServer server;
+    private PlaylistFetcher fetcher;
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    void start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        fetcher = new PlaylistFetcher(HttpClient.newHttpClient(), dir.toFile(), Duration.ofSeconds(5),
+                Duration.ofMillis(300), Duration.ofSeconds(5));
+    }
+
+    @AfterEach
+    void stop() {
+        release.countDown();
+        server.stop(0);
+    }
+
+    @Test
+    void stalledBodyFailsInsteadOfHanging() throws IOException {
+        server.createContext("/stall", exchange -> {
+            exchange.sendResponseHeaders(200, 0);
+            OutputStream out = exchange.getResponseBody();
+            out.write("#EXTM3U\n".getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            await(release);
+            exchange.close();
+        });
+
+        long start = System.nanoTime();
+        try (InputStream in = fetcher.open(uri("/stall"))) {
+            assertThrows(InterruptedIOException.class, in::readAllBytes);
+        }
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        assertTrue(millis < 3000, "gave up after " + millis + " ms");
+    }
+
+    @Test
+    void notModifiedIsServedFromCache() throws IOException {
+        AtomicInteger conditional = new AtomicInteger();
+        server.createContext("/list", exchange -> {
+            if ("\"v1\"".equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                conditional.incrementAndGet();
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+                return;
+            }
+            exchange.getResponseHeaders().add("ETag", "\"v1\"");
+            send(exchange, PLAYLIST.getBytes(StandardCharsets.UTF_8));
+        });
+
+        assertEquals(PLAYLIST, read(uri("/list")));
+        assertEquals(PLAYLIST, read(uri("/list")));
+        assertEquals(1, conditional.get());
+        assertEquals(2, fetcher.getRequests());
+        assertEquals(1, fetcher.getCacheHits());
+    }
+
+    @Test
+    void gzipBodyIsInflated() throws IOException {
+        server.createContext("/gz", exchange -> {
+            assertEquals("gzip", exchange.getRequestHeaders().getFirst("Accept-Encoding"));
+            ByteArrayOutputStream packed = new ByteArrayOutputStream();
+            try (OutputStream gz = new GZIPOutputStream(packed)) {
+                gz.write(PLAYLIST.getBytes(StandardCharsets.UTF_8));
+            }
+            exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+            exchange.getResponseHeaders().add("ETag", "\"gz\"");
+            send(exchange, packed.toByteArray());
+        });
+
+        assertEquals(PLAYLIST, read(uri("/gz")));
+    }
+
+    @Test
+    void cachedCopyIsUsedWhenServerIsGone() throws IOException {
+        server.createContext("/list", exchange -> {
+            exchange.getResponseHeaders().add("Last-Modified", "Sat, 17 Oct 2026 10:00:00 GMT");
+            send(exchange, PLAYLIST.getBytes(StandardCharsets.UTF_8));
+        });
+        URI uri = uri("/list");
+        assertEquals(PLAYLIST, read(uri));
+
+        server.stop(0);
+        assertEquals(PLAYLIST, read(uri));
+        assertEquals(1, fetcher.getCacheHits());
+    }
+
+    @Test
+    void partialBodyIsNotCached() throws IOException {
+        server.createContext("/list", exchange -> {
+            exchange.getResponseHeaders().add("ETag", "\"v1\"");
+            send(exchange, PLAYLIST.getBytes(StandardCharsets.UTF_8));
+        });
+        try (InputStream in = fetcher.open(uri("/list"))) {
+            in.read(new byte[4]);
+        }
+        assertArrayEquals(new String[0], dir.toFile().list());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://127.0.0.1:" + server.getAddress().getPort() + path);
+    }
+
+    private String read(URI uri) throws IOException {
+        try (InputStream in = fetcher.open(uri)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static void send(HttpExchange exchange, byte[] body) throws IOException {
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
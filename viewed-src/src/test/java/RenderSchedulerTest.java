@@ -0,0 +1,40 @@
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import javax.swing.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RenderSchedulerTest {
+
+    private final RenderScheduler scheduler = new RenderScheduler(30);
+
+    @AfterEach
+    void stop() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    void clockStaysOffWhileNothingIsShowing() throws Exception {
+        JPanel panel = new JPanel();
+        scheduler.register(panel);
+        assertFalse(panel.isShowing());
+        assertFalse(scheduler.isRunning());
+
+        Thread.sleep(200);
+        assertEquals(0, scheduler.getFrames());
+        assertEquals(0, scheduler.getDroppedFrames());
+    }
+
+    @Test
+    void unregisterRemovesTheHierarchyListener() {
+        JPanel panel = new JPanel();
+        int before = panel.getHierarchyListeners().length;
+        scheduler.register(panel);
+        scheduler.register(panel);
+        assertEquals(before + 1, panel.getHierarchyListeners().length);
+        scheduler.unregister(panel);
+        assertEquals(before, panel.getHierarchyListeners().length);
+        assertFalse(scheduler.isRunning());
+    }
+}
@@ -0,0 +1,58 @@
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchIndexTest {
+
+    @Test
+    void everyQueryWordIsAPrefix() {
+        SearchIndex index = new SearchIndex();
+        index.put(0, "The Beatles - Revolution");
+        index.put(1, "The Beatles - Help!");
+        index.put(2, "Revolution 9");
+
+        assertArrayEquals(new int[]{0}, index.search("beat rev", 10));
+        assertArrayEquals(new int[]{0, 2}, index.search("REV", 10));
+        assertArrayEquals(new int[]{0, 1}, index.search("the", 10));
+        assertArrayEquals(new int[0], index.search("stones", 10));
+        assertNull(index.search(" - ", 10));
+    }
+
+    @Test
+    void searchCanStartAtADocument() {
+        SearchIndex index = new SearchIndex();
+        for (int doc = 0; doc < 300; doc++)
+            index.put(doc, doc % 3 == 0 ? "Song " + doc : "Other " + doc);
+
+        assertArrayEquals(new int[]{129, 132, 135}, index.search("song", 128, 3));
+        assertArrayEquals(new int[]{297}, index.search("song", 297, 10));
+        assertArrayEquals(new int[]{298, 299}, index.search("oth", 297, 10));
+        assertArrayEquals(new int[0], index.search("song", 300, 10));
+        assertArrayEquals(index.search("song", 10), index.search("song", 0, 10));
+    }
+
+    @Test
+    void wordsOfRemovedDocumentsAreDropped() {
+        SearchIndex index = new SearchIndex();
+        index.put(0, "always here");
+        for (int round = 0; round < 5; round++) {
+            for (int doc = 1; doc <= 5000; doc++)
+                index.put(doc, "track" + round + "x" + doc + " common");
+            for (int doc = 1; doc <= 5000; doc++)
+                index.remove(doc);
+        }
+
+        assertEquals(1, index.size());
+        assertTrue(index.wordCount() < 5000, index.wordCount() + " words left");
+        assertArrayEquals(new int[0], index.search("track", 10));
+        assertArrayEquals(new int[0], index.search("common", 10));
+        assertArrayEquals(new int[]{0}, index.search("alw her", 10));
+
+        // Renumbered words still find and replace their documents
+        index.put(7, "always back");
+        assertArrayEquals(new int[]{0, 7}, index.search("always", 10));
+        index.put(0, "gone");
+        assertArrayEquals(new int[]{7}, index.search("always", 10));
+        assertArrayEquals(new int[0], index.search("here", 10));
+    }
+}
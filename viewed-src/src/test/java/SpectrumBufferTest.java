@@ -0,0 +1,72 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpectrumBufferTest {
+
+    private static final int BANDS = 128;
+
+    @Test
+    void publishingAndReadingAllocatesNothing() throws Exception {
+        SpectrumBuffer buffer = new SpectrumBuffer(BANDS);
+        float[] frame = new float[BANDS];
+        float[] target = new float[BANDS];
+        cycle(buffer, frame, target, 20_000); // JIT warm-up
+
+        long allocated = Allocations.measure(() -> cycle(buffer, frame, target, 100_000));
+        assertEquals(0, allocated, "bytes allocated over 100k frames");
+    }
+
+    @Test
+    void readerNeverSeesAHalfWrittenFrame() throws Exception {
+        SpectrumBuffer buffer = new SpectrumBuffer(BANDS);
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread writer = new Thread(() -> {
+            float[] frame = new float[BANDS];
+            // Every value of frame n is n, so a mix of two frames shows up as unequal values
+            for (int n = 1; running.get(); n++) {
+                for (int i = 0; i < BANDS; i++)
+                    frame[i] = n;
+                buffer.publish(frame);
+                if ((n & 7) == 0)
+                    Thread.yield(); // Let the reader in on single-core machines
+            }
+        }, "spectrum-writer");
+        writer.start();
+
+        float[] target = new float[BANDS];
+        float last = 0;
+        int reads = 0;
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        try {
+            while (reads < 5_000 && System.nanoTime() < deadline) {
+                if (!buffer.read(target)) {
+                    Thread.yield(); // Let the writer in on single-core machines
+                    continue;
+                }
+                reads++;
+                for (int i = 1; i < BANDS; i++) {
+                    if (target[i] != target[0])
+                        fail("torn frame: band 0 is " + target[0] + ", band " + i + " is " + target[i]);
+                }
+                assertTrue(target[0] > last, "frame " + target[0] + " read after " + last);
+                last = target[0];
+            }
+        } finally {
+            running.set(false);
+            writer.join();
+        }
+        assertTrue(reads > 100, "only " + reads + " frames read");
+    }
+
+    private static void cycle(SpectrumBuffer buffer, float[] frame, float[] target, int frames) {
+        for (int n = 0; n < frames; n++) {
+            frame[n % BANDS] = n;
+            buffer.publish(frame);
+            if (!buffer.read(target))
+                throw new AssertionError("frame " + n + " not delivered");
+        }
+    }
+}
@@ -0,0 +1,43 @@
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeTextTest {
+
+    @Test
+    void formatsWholeSecondsAsMinutesAndSeconds() {
+        assertEquals("00:00", TimeText.format(0));
+        assertEquals("00:00", TimeText.format(-500));
+        assertEquals("00:59", TimeText.format(59_999));
+        assertEquals("01:00", TimeText.format(60_000));
+        assertEquals("99:59", TimeText.format((99 * 60 + 59) * 1000L));
+        assertEquals("100:00", TimeText.format(100 * 60 * 1000L));
+        assertEquals("1234:05", TimeText.format((1234 * 60 + 5) * 1000L));
+    }
+
+    @Test
+    void updateReportsOnlyChangesOfTheShownText() {
+        TimeText time = new TimeText();
+        assertTrue(time.update(0, 0));
+        assertEquals("00:00 / 00:00", time.text());
+
+        assertTrue(time.update(59_999, (99 * 60 + 59) * 1000L));
+        assertEquals("00:59 / 99:59", time.text());
+        assertFalse(time.update(59_001, (99 * 60 + 59) * 1000L + 999));
+
+        assertTrue(time.update(6_000_000, 7_384_000));
+        assertEquals("100:00 / 123:04", time.text());
+    }
+
+    @Test
+    void labelTextIsBuiltOncePerShownSecond() {
+        TimeText time = new TimeText();
+        int changes = 0;
+        // A minute of 50 ms ticks
+        for (long position = 0; position < 60_000; position += 50) {
+            if (time.update(position, 240_000))
+                changes++;
+        }
+        assertEquals(60, changes);
+    }
+}